@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+/**
+ * Result of collecting unreferenced asset objects
+ */
+public class AssetCollectionReport {
+    private final boolean dryRun;
+    private final int referencedObjects;
+    private final int scannedObjects;
+    private final int unreferencedObjects;
+    private final long reclaimedBytes;
+    private final long durationMillis;
+
+    AssetCollectionReport(boolean dryRun, int referencedObjects, int scannedObjects, int unreferencedObjects, long reclaimedBytes, long durationMillis) {
+        this.dryRun = dryRun;
+        this.referencedObjects = referencedObjects;
+        this.scannedObjects = scannedObjects;
+        this.unreferencedObjects = unreferencedObjects;
+        this.reclaimedBytes = reclaimedBytes;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * @return Whether nothing was deleted and this report only tells what would have been
+     */
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    /**
+     * @return Number of distinct objects the marked asset indexes refer to
+     */
+    public int getReferencedObjects() {
+        return referencedObjects;
+    }
+
+    /**
+     * @return Number of files found in the objects folder
+     */
+    public int getScannedObjects() {
+        return scannedObjects;
+    }
+
+    /**
+     * @return Number of files which were, or in a dry run would be, deleted
+     */
+    public int getUnreferencedObjects() {
+        return unreferencedObjects;
+    }
+
+    /**
+     * @return Bytes which were, or in a dry run would be, freed
+     */
+    public long getReclaimedBytes() {
+        return reclaimedBytes;
+    }
+
+    /**
+     * @return How long marking and sweeping took in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "AssetCollectionReport{" +
+                "dryRun=" + dryRun +
+                ", referencedObjects=" + referencedObjects +
+                ", scannedObjects=" + scannedObjects +
+                ", unreferencedObjects=" + unreferencedObjects +
+                ", reclaimedBytes=" + reclaimedBytes +
+                ", durationMillis=" + durationMillis +
+                '}';
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import com.google.gson.JsonParseException;
+import me.minidigger.minecraftlauncher.api.json.LauncherGson;
+import me.minidigger.minecraftlauncher.api.json.launcher.AssetIndex;
+import me.minidigger.minecraftlauncher.api.json.launcher.LauncherPackage;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Mark and sweep over {@code assets/objects}. Marking reads the asset indexes which are to be kept, sweeping
+ * walks the two-hex-digit shards of the objects folder in parallel and deletes every object none of those
+ * indexes refers to.
+ *
+ * If any index which should be kept can't be read, or no index is found at all, nothing is deleted, as its
+ * objects can't be told apart from garbage. Besides objects, partial downloads which were left behind for more than a day are removed.
+ * Collecting while a download runs is not supported.
+ */
+class AssetGarbageCollector {
+    private final static Logger logger = LoggerFactory.getLogger(AssetGarbageCollector.class);
+    private final static long STALE_PART_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private AssetGarbageCollector() {}
+
+    /**
+     * Collects unreferenced asset objects
+     *
+     * @param installedVersionsOnly Only keep objects of indexes installed versions use, instead of those of
+     *                              every index in {@code assets/indexes}
+     * @param dryRun                Only count what would be deleted
+     * @return Report, or {@code null} if no index was found or an index couldn't be read and nothing was collected
+     */
+    @Nullable
+    public static AssetCollectionReport collect(boolean installedVersionsOnly, boolean dryRun) {
+        long start = System.currentTimeMillis();
+
+        Set<Path> indexes = installedVersionsOnly ? getInstalledIndexes() : getAllIndexes();
+        if (indexes == null) {
+            return null;
+        }
+        if (indexes.isEmpty()) {
+            //with nothing marked the sweep would take every object for garbage
+            logger.error("Not collecting asset objects, no asset index was found");
+            return null;
+        }
+
+        List<AssetObjectTable> marked = indexes.parallelStream().map(AssetGarbageCollector::readIndex).collect(Collectors.toList());
+        if (marked.contains(null)) {
+            logger.error("Not collecting asset objects, an asset index couldn't be read");
+            return null;
+        }
+        int referenced = countDistinct(marked);
+        if (referenced == 0) {
+            logger.error("Not collecting asset objects, the asset indexes reference no objects");
+            return null;
+        }
+        logger.info("Marked {} objects of {} asset indexes", referenced, marked.size());
+
+        List<Path> shards = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Utils.getMineCraftAssetsObjectsLocation(), Files::isDirectory)) {
+            stream.forEach(shards::add);
+        } catch (NoSuchFileException e) {
+            return new AssetCollectionReport(dryRun, referenced, 0, 0, 0, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            logger.error("Failed to list asset objects", e);
+            return null;
+        }
+
+        AtomicInteger scanned = new AtomicInteger();
+        AtomicInteger unreferenced = new AtomicInteger();
+        AtomicLong reclaimed = new AtomicLong();
+        long staleBefore = System.currentTimeMillis() - STALE_PART_MILLIS;
+        shards.parallelStream().forEach(shard -> {
+            try (DirectoryStream<Path> objects = Files.newDirectoryStream(shard)) {
+                for (Path object : objects) {
+                    BasicFileAttributes attributes = Files.readAttributes(object, BasicFileAttributes.class);
+                    if (!attributes.isRegularFile()) {
+                        continue;
+                    }
+                    scanned.incrementAndGet();
+
+                    String name = object.getFileName().toString();
+                    boolean garbage;
+                    if (name.endsWith(".part") || name.endsWith(".part.meta")) {
+                        garbage = attributes.lastModifiedTime().toMillis() < staleBefore;
+                    } else {
+                        //anything which isn't named like an object isn't ours to delete
+                        byte[] hash = AssetObjectTable.parseHash(name);
+                        garbage = hash != null && !isReferenced(marked, hash);
+                    }
+                    if (!garbage) {
+                        continue;
+                    }
+
+                    if (!dryRun) {
+                        Files.deleteIfExists(object);
+                        Utils.getArtifactLedger().forget(object);
+                    }
+                    unreferenced.incrementAndGet();
+                    reclaimed.addAndGet(attributes.size());
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to sweep {}", shard, e);
+            }
+        });
+        Utils.getArtifactLedger().save();
+
+        AssetCollectionReport report = new AssetCollectionReport(dryRun, referenced, scanned.get(), unreferenced.get(),
+                reclaimed.get(), System.currentTimeMillis() - start);
+        logger.info("Collected asset objects: {}", report);
+        return report;
+    }
+
+    @Nullable
+    private static Set<Path> getAllIndexes() {
+        try (Stream<Path> files = Files.list(Utils.getMineCraftAssetsIndexesLocation())) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json")).collect(Collectors.toSet());
+        } catch (NoSuchFileException e) {
+            return new HashSet<>();
+        } catch (IOException e) {
+            logger.error("Failed to list asset indexes", e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Set<Path> getInstalledIndexes() {
+        Local local = new Local();
+        local.generateVersionList(Utils.getMineCraftVersionsLocation());
+
+        Set<Path> indexes = new HashSet<>();
+        for (String version : local.versions_list) {
+            LauncherPackage launcherPackage = VersionResolver.resolve(version);
+            if (launcherPackage == null) {
+                logger.error("Version json of {} can't be read", version);
+                return null;
+            }
+            if (launcherPackage.getAssetIndex() != null) {
+                indexes.add(Utils.getMineCraftAssetsIndexes_X_json(launcherPackage.getAssetIndex().getId()));
+            }
+        }
+        return indexes;
+    }
+
+    @Nullable
+    private static AssetObjectTable readIndex(Path index) {
+        try (Reader reader = Files.newBufferedReader(index)) {
+            AssetIndex assetIndex = LauncherGson.getGson().fromJson(reader, AssetIndex.class);
+            return assetIndex != null ? AssetObjectTable.of(assetIndex) : null;
+        } catch (IOException | JsonParseException e) {
+            logger.error("Failed to read asset index {}", index, e);
+            return null;
+        }
+    }
+
+    private static boolean isReferenced(Collection<AssetObjectTable> marked, byte[] hash) {
+        for (AssetObjectTable table : marked) {
+            if (table.indexOf(hash) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int countDistinct(List<AssetObjectTable> marked) {
+        int count = 0;
+        for (int t = 0; t < marked.size(); t++) {
+            AssetObjectTable table = marked.get(t);
+            for (int i = 0; i < table.size(); i++) {
+                if (!table.isFirstOccurrence(i)) {
+                    continue;
+                }
+                if (!isReferenced(marked.subList(0, t), table.getHashBytes(i))) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
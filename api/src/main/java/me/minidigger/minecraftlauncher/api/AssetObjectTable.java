@@ -0,0 +1,290 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import me.minidigger.minecraftlauncher.api.json.launcher.AssetIndex;
+import me.minidigger.minecraftlauncher.api.verify.Hex;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Asset objects of an index packed into flat arrays: binary SHA-1s in one {@code byte[]}, sizes in a
+ * {@code long[]} and interned names. Objects are addressed by their position in the index, so walking the
+ * table for downloading, verifying or copying doesn't allocate anything per object.
+ *
+ * Several names can point to the same object. An open addressing map from hash to the first position the
+ * hash appears at lets stages which work per object skip the duplicates.
+ */
+class AssetObjectTable {
+    private final static Logger logger = LoggerFactory.getLogger(AssetObjectTable.class);
+    private final static int SHA1_LENGTH = 20;
+
+    /**
+     * Length of an object location, {@code <first two hex digits>/<hash>}
+     */
+    public final static int OBJECT_LOCATION_LENGTH = 3 + SHA1_LENGTH * 2;
+
+    private final byte[] hashes;
+    private final long[] sizes;
+    private final String[] names;
+    private final int[] slots; // position + 1 of the first object with a hash, 0 if empty
+    private final int mask;
+    private final boolean virtual;
+    private final boolean mapToResources;
+    private int count;
+
+    private AssetObjectTable(int capacity, boolean virtual, boolean mapToResources) {
+        this.virtual = virtual;
+        this.mapToResources = mapToResources;
+        hashes = new byte[capacity * SHA1_LENGTH];
+        sizes = new long[capacity];
+        names = new String[capacity];
+
+        int slotCount = Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1) << 1;
+        slots = new int[slotCount];
+        mask = slotCount - 1;
+    }
+
+    /**
+     * @return Table without objects, for versions whose asset index couldn't be read
+     */
+    @NonNull
+    public static AssetObjectTable empty() {
+        return new AssetObjectTable(0, false, false);
+    }
+
+    /**
+     * Packs the objects of given asset index
+     *
+     * @param assetIndex Parsed asset index
+     * @return Packed table, in index order
+     */
+    @NonNull
+    public static AssetObjectTable of(@NonNull AssetIndex assetIndex) {
+        AssetObjectTable table = new AssetObjectTable(assetIndex.getObjects().size(), assetIndex.isVirtual(), assetIndex.isMapToResources());
+        for (Map.Entry<String, AssetIndex.AssetInfo> object : assetIndex.getObjects().entrySet()) {
+            int index = table.count;
+            if (!Hex.fromHex(object.getValue().getHash(), table.hashes, index * SHA1_LENGTH, SHA1_LENGTH)) {
+                logger.warn("Skipping asset {} with invalid hash {}", object.getKey(), object.getValue().getHash());
+                continue;
+            }
+            table.sizes[index] = object.getValue().getSize();
+            table.names[index] = object.getKey().intern();
+            table.insert(index);
+            table.count++;
+        }
+        return table;
+    }
+
+    /**
+     * @return Whether the index wants its objects laid out by name in the virtual assets folder
+     * @see AssetIndex#isVirtual()
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * @return Whether the index wants its objects laid out by name in the resources folder
+     * @see AssetIndex#isMapToResources()
+     */
+    public boolean isMapToResources() {
+        return mapToResources;
+    }
+
+    /**
+     * @return Number of objects, duplicates included
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the path of the object inside the virtual assets folder, e.g. {@code minecraft/sounds/ambient/cave/cave1.ogg}
+     *
+     * @param index Object position
+     * @return Object name
+     */
+    @NonNull
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public long getSize(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * Gets the SHA-1 of the object as hex string
+     *
+     * @param index Object position
+     * @return SHA-1 as hex string
+     */
+    @NonNull
+    public String getHash(int index) {
+        char[] hex = new char[SHA1_LENGTH * 2];
+        Hex.toHex(hashes, index * SHA1_LENGTH, SHA1_LENGTH, hex, 0);
+        return new String(hex);
+    }
+
+    /**
+     * Gets the location of the object relative to the objects folder and the assets url, {@code <first two hex digits>/<hash>}
+     *
+     * @param index Object position
+     * @return Object location
+     */
+    @NonNull
+    public String getObjectLocation(int index) {
+        StringBuilder location = new StringBuilder(OBJECT_LOCATION_LENGTH);
+        appendObjectLocation(index, location);
+        return location.toString();
+    }
+
+    /**
+     * Appends the location of the object, {@code <first two hex digits>/<hash>}, to given builder. Resetting one
+     * builder to a common prefix for every object builds urls and paths without intermediate strings
+     *
+     * @param index  Object position
+     * @param target Builder to append {@link #OBJECT_LOCATION_LENGTH} characters to
+     */
+    public void appendObjectLocation(int index, @NonNull StringBuilder target) {
+        Hex.appendHex(hashes, index * SHA1_LENGTH, 1, target);
+        target.append('/');
+        Hex.appendHex(hashes, index * SHA1_LENGTH, SHA1_LENGTH, target);
+    }
+
+    /**
+     * Copies the binary SHA-1 of the object
+     *
+     * @param index Object position
+     * @return 20 byte SHA-1
+     */
+    @NonNull
+    public byte[] getHashBytes(int index) {
+        return Arrays.copyOfRange(hashes, index * SHA1_LENGTH, (index + 1) * SHA1_LENGTH);
+    }
+
+    /**
+     * Compares the SHA-1 of the object with given binary SHA-1
+     *
+     * @param index Object position
+     * @param sha1  20 byte SHA-1
+     * @return Whether the object has given hash
+     */
+    public boolean hasHash(int index, @NonNull byte[] sha1) {
+        return sha1.length == SHA1_LENGTH && equals(sha1, 0, index * SHA1_LENGTH);
+    }
+
+    /**
+     * Returns whether the object at given position is the first one with its hash. Walking only those visits
+     * every distinct object once
+     *
+     * @param index Object position
+     * @return Whether no earlier object has the same hash
+     */
+    public boolean isFirstOccurrence(int index) {
+        return find(hashes, index * SHA1_LENGTH) == index;
+    }
+
+    /**
+     * Looks up the first object with given hash
+     *
+     * @param sha1 SHA-1 as hex string
+     * @return Object position, or {@code -1} if there is no such object
+     */
+    public int indexOf(@NonNull String sha1) {
+        byte[] hash = parseHash(sha1);
+        return hash != null ? find(hash, 0) : -1;
+    }
+
+    /**
+     * Looks up the first object with given hash
+     *
+     * @param sha1 20 byte SHA-1
+     * @return Object position, or {@code -1} if there is no such object
+     */
+    public int indexOf(@NonNull byte[] sha1) {
+        return sha1.length == SHA1_LENGTH ? find(sha1, 0) : -1;
+    }
+
+    /**
+     * Converts a SHA-1 hex string to its 20 bytes
+     *
+     * @param sha1 SHA-1 as hex string
+     * @return 20 byte SHA-1, or {@code null} if given string isn't a SHA-1
+     */
+    @Nullable
+    public static byte[] parseHash(@NonNull String sha1) {
+        byte[] hash = new byte[SHA1_LENGTH];
+        return Hex.fromHex(sha1, hash, 0, SHA1_LENGTH) ? hash : null;
+    }
+
+    private void insert(int index) {
+        int offset = index * SHA1_LENGTH;
+        int slot = slot(hashes, offset);
+        while (slots[slot] != 0) {
+            if (equals(hashes, offset, (slots[slot] - 1) * SHA1_LENGTH)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+    }
+
+    private int find(byte[] hash, int offset) {
+        int slot = slot(hash, offset);
+        while (slots[slot] != 0) {
+            int candidate = slots[slot] - 1;
+            if (equals(hash, offset, candidate * SHA1_LENGTH)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // SHA-1s are evenly distributed already, their first bytes make a good slot
+    private int slot(byte[] hash, int offset) {
+        int value = (hash[offset] & 0xFF) << 24 | (hash[offset + 1] & 0xFF) << 16 | (hash[offset + 2] & 0xFF) << 8 | (hash[offset + 3] & 0xFF);
+        return value & mask;
+    }
+
+    private boolean equals(byte[] hash, int offset, int tableOffset) {
+        for (int i = 0; i < SHA1_LENGTH; i++) {
+            if (hash[offset + i] != hashes[tableOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
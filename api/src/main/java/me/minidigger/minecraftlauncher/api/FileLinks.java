@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hard links files into place, so that the same contents can show up in several folders without being written
+ * twice. Virtual asset trees and natives directories are built this way
+ */
+final class FileLinks {
+    private final static Logger logger = LoggerFactory.getLogger(FileLinks.class);
+
+    private static volatile boolean hardLinksSupported = true;
+    private final static Set<List<FileStore>> copyOnlyStores = ConcurrentHashMap.newKeySet();
+
+    private FileLinks() {}
+
+    /**
+     * Returns whether target is a link to source, or a copy of it made by {@link #link(Path, Path)}. A hard link
+     * shares the file key with its source, copies carry the size and modification time of the source
+     *
+     * @param source File which is linked to
+     * @param target Link
+     * @return Whether target still matches source
+     * @throws IOException If source can't be read
+     */
+    static boolean isUpToDate(Path source, Path target) throws IOException {
+        BasicFileAttributes targetAttributes;
+        try {
+            targetAttributes = Files.readAttributes(target, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        BasicFileAttributes sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+
+        Object sourceKey = sourceAttributes.fileKey();
+        if (sourceKey != null && sourceKey.equals(targetAttributes.fileKey())) {
+            return true;
+        }
+        return targetAttributes.isRegularFile() && targetAttributes.size() == sourceAttributes.size()
+                && targetAttributes.lastModifiedTime().equals(sourceAttributes.lastModifiedTime());
+    }
+
+    /**
+     * Creates a hard link to a file, or a copy with the same modification time where that isn't possible
+     *
+     * @param source File to link to
+     * @param target Link to create, must not exist
+     * @throws IOException If neither a link nor a copy could be created
+     */
+    static void link(Path source, Path target) throws IOException {
+        if (hardLinksSupported && !isCopyOnly(source, target)) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (UnsupportedOperationException e) {
+                logger.info("Hard links aren't supported, copying files instead", e);
+                hardLinksSupported = false;
+            } catch (NoSuchFileException | FileAlreadyExistsException | AccessDeniedException e) {
+                //only concern this one file
+                throw e;
+            } catch (FileSystemException e) {
+                //the folders are on different volumes, or the volume has no hard links
+                logger.info("Hard links aren't possible for {}, copying files between these volumes instead", target, e);
+                copyOnlyStores.add(getStores(source, target));
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    private static boolean isCopyOnly(Path source, Path target) throws IOException {
+        return !copyOnlyStores.isEmpty() && copyOnlyStores.contains(getStores(source, target));
+    }
+
+    private static List<FileStore> getStores(Path source, Path target) throws IOException {
+        return Arrays.asList(Files.getFileStore(source), Files.getFileStore(target.getParent()));
+    }
+
+}
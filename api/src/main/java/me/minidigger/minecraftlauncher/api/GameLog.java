@@ -0,0 +1,415 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Output of one game session. The threads reading the game output hand lines over through a bounded queue to a
+ * single sink thread, which writes them in batches to a log file of the session and keeps the most recent ones in
+ * a fixed-size ring for {@link Tail}s. Neither reading nor tailing ever allocates more than a fixed amount of memory:
+ * if the sink falls behind the readers wait, which in turn makes the game wait, and a tail which falls behind skips
+ * the lines which were overwritten meanwhile
+ */
+public class GameLog {
+    private final static Logger logger = LoggerFactory.getLogger(GameLog.class);
+
+    private final static int QUEUE_CAPACITY = 8192;
+    private final static int BATCH_SIZE = 1024;
+    private final static int TAIL_CAPACITY = 4096;
+    private final static int MAX_MESSAGE_LENGTH = 8192;
+    private final static long MAX_FILE_SIZE = 16 * 1024 * 1024;
+    private final static int MAX_FILES_PER_SESSION = 4;
+    private final static int MAX_SESSIONS = 10;
+    private final static DateTimeFormatter SESSION_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss", Locale.ROOT);
+
+    /*
+     * Marks the end of the session in the queue
+     */
+    private final static Line END = new Line(0, null, null, "", false);
+
+    private final BlockingQueue<Line> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Line[] ring = new Line[TAIL_CAPACITY];
+    private long written;
+    private volatile boolean closed;
+
+    private final Path directory;
+    private final String session;
+    private int part;
+    private boolean opened;
+    //encoded bytes which reached the file, buffered ones aren't counted yet
+    private long fileSize;
+    @Nullable
+    private Writer writer;
+    private volatile Path file;
+
+    private GameLog(Path directory, String session) {
+        this.directory = directory;
+        this.session = session;
+        this.file = getFile(0);
+    }
+
+    /**
+     * Starts a new session log in given directory, older sessions beyond the most recent few are deleted
+     *
+     * @param directory Directory of all session logs
+     * @return Session log
+     */
+    @NonNull
+    static GameLog open(@NonNull Path directory) {
+        String session = SESSION_FORMAT.format(LocalDateTime.now());
+        GameLog log = new GameLog(directory, session);
+        log.pruneSessions();
+
+        Thread sink = new Thread(log::drain, "MinecraftLogSink");
+        sink.setDaemon(true);
+        sink.start();
+        return log;
+    }
+
+    /**
+     * Hands a line over to the sink, waiting while the queue is full
+     *
+     * @param line Line of game output
+     */
+    void add(@NonNull Line line) {
+        if (closed) {
+            return;
+        }
+        try {
+            queue.put(line);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ends the session once all lines handed over so far are written
+     */
+    void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Opens a tail which starts with the lines which are currently kept in memory
+     *
+     * @return New tail
+     */
+    @NonNull
+    public Tail openTail() {
+        synchronized (ring) {
+            return new Tail(Math.max(0, written - TAIL_CAPACITY));
+        }
+    }
+
+    /**
+     * @return Log file which is currently written to
+     */
+    @NonNull
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return Whether the game output ended and everything was written
+     */
+    public boolean isClosed() {
+        return closed && queue.isEmpty();
+    }
+
+    private void drain() {
+        List<Line> batch = new ArrayList<>(BATCH_SIZE);
+        boolean end = false;
+        while (!end) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            end = batch.remove(END);
+
+            write(batch);
+            synchronized (ring) {
+                for (Line line : batch) {
+                    ring[(int) (written++ % TAIL_CAPACITY)] = line;
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                batch.forEach(line -> logger.debug("MINECRAFT: {}", line));
+            }
+            batch.clear();
+        }
+
+        closeWriter();
+        logger.info("Game log written to {}", file);
+    }
+
+    private void write(List<Line> batch) {
+        try {
+            for (Line line : batch) {
+                if (writer == null || fileSize >= MAX_FILE_SIZE) {
+                    roll();
+                }
+                String text = line.toString();
+                writer.write(text);
+                writer.write(System.lineSeparator());
+            }
+            if (writer != null) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write game log {}", file, e);
+            closeWriter();
+        }
+    }
+
+    /*
+     * Starts the next file of this session, only the last few files of a session are kept
+     */
+    private void roll() throws IOException {
+        closeWriter();
+        //after a failed write as well, reopening the current file would truncate it
+        if (opened) {
+            part++;
+        }
+        if (part >= MAX_FILES_PER_SESSION) {
+            Files.deleteIfExists(getFile(part - MAX_FILES_PER_SESSION));
+        }
+        Files.createDirectories(directory);
+        file = getFile(part);
+        fileSize = 0;
+        opened = true;
+        writer = new BufferedWriter(new OutputStreamWriter(new CountingOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close game log {}", file, e);
+            }
+            writer = null;
+        }
+    }
+
+    private Path getFile(int part) {
+        return directory.resolve(part == 0 ? session + ".log" : session + "." + part + ".log");
+    }
+
+    private void pruneSessions() {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> logs = files.filter(path -> path.getFileName().toString().endsWith(".log")).collect(Collectors.toList());
+            TreeSet<String> sessions = new TreeSet<>();
+            for (Path log : logs) {
+                sessions.add(getSession(log));
+            }
+            while (sessions.size() >= MAX_SESSIONS) {
+                String oldest = sessions.pollFirst();
+                for (Path log : logs) {
+                    if (getSession(log).equals(oldest)) {
+                        Files.deleteIfExists(log);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to prune game logs in {}", directory, e);
+        }
+    }
+
+    private static String getSession(Path log) {
+        String name = log.getFileName().toString();
+        return name.substring(0, name.indexOf('.'));
+    }
+
+    private class CountingOutputStream extends FilterOutputStream {
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            fileSize++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            fileSize += len;
+        }
+    }
+
+    /**
+     * Reads the game output as it arrives. Every tail keeps its own position, so the UI can poll at whatever pace it
+     * manages. Lines which dropped out of memory before they were polled are skipped and counted
+     */
+    public class Tail {
+        private long position;
+        private long skipped;
+
+        private Tail(long position) {
+            this.position = position;
+        }
+
+        /**
+         * Gets the lines which arrived since the last poll
+         *
+         * @param max Maximum number of lines to return
+         * @return Lines in the order they were printed, empty if there are none
+         */
+        @NonNull
+        public List<Line> poll(int max) {
+            synchronized (ring) {
+                if (written - position > TAIL_CAPACITY) {
+                    skipped += written - TAIL_CAPACITY - position;
+                    position = written - TAIL_CAPACITY;
+                }
+                int count = (int) Math.min(max, written - position);
+                List<Line> lines = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    lines.add(ring[(int) (position++ % TAIL_CAPACITY)]);
+                }
+                return lines;
+            }
+        }
+
+        /**
+         * @return Number of lines which were skipped because this tail fell too far behind
+         */
+        public long getSkipped() {
+            synchronized (ring) {
+                return skipped;
+            }
+        }
+    }
+
+    /**
+     * A line, or with an XML log configuration an event, of game output
+     */
+    public static class Line {
+        private final static DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss", Locale.ROOT).withZone(ZoneId.systemDefault());
+
+        private final long timestamp;
+        @Nullable
+        private final String level;
+        @Nullable
+        private final String thread;
+        private final String message;
+        private final boolean error;
+
+        Line(long timestamp, @Nullable String level, @Nullable String thread, @NonNull String message, boolean error) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.thread = thread;
+            this.message = message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) + "..." : message;
+            this.error = error;
+        }
+
+        /**
+         * @return When the line was logged or, for plain output, received, in milliseconds since the epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return Log level of an event, {@code null} for plain output
+         */
+        @Nullable
+        public String getLevel() {
+            return level;
+        }
+
+        /**
+         * @return Thread which logged an event, {@code null} for plain output
+         */
+        @Nullable
+        public String getThread() {
+            return thread;
+        }
+
+        /**
+         * @return Text of the line or event
+         */
+        @NonNull
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * @return Whether the game printed this to its error stream
+         */
+        public boolean isError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            if (level == null) {
+                return message;
+            }
+            return "[" + TIME_FORMAT.format(Instant.ofEpochMilli(timestamp)) + "] [" + thread + "/" + level + "]: " + message;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import me.minidigger.minecraftlauncher.api.events.LauncherEventHandler;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Starts the game and watches it. Both output streams are drained on their own threads, so the game never blocks on
+ * a full pipe. The game counts as started as soon as its log shows that it got going, and its exit is reported as soon
+ * as it happens, both through the {@link LauncherEventHandler}. The handler is called on a thread of its own, so
+ * that however long it takes or whatever it throws, the output keeps being drained. The output itself goes to a
+ * {@link GameLog}
+ */
+class GameProcessSupervisor {
+    private final static Logger logger = LoggerFactory.getLogger(GameProcessSupervisor.class);
+
+    /*
+     * Logged by every version since 1.6 while it starts up: the session being set, and the window being created
+     * by LWJGL 2 and LWJGL 3 respectively
+     */
+    private final static List<String> READY_MARKERS = Arrays.asList("Setting user: ", "LWJGL Version: ", "Backend library: ");
+
+    /*
+     * Versions which log none of the markers are taken as started once they survived this long
+     */
+    private final static long READY_TIMEOUT_SECONDS = 30;
+
+    private final Process process;
+    private final LauncherEventHandler eventHandler;
+    private final GameLog log = GameLog.open(Utils.getGameLogsLocation());
+    private final AtomicBoolean ready = new AtomicBoolean();
+    private final ExecutorService events = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MinecraftEvents");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long startTime = System.nanoTime();
+
+    private GameProcessSupervisor(Process process, LauncherEventHandler eventHandler) {
+        this.process = process;
+        this.eventHandler = eventHandler;
+    }
+
+    /**
+     * Starts the game
+     *
+     * @param command          Java executable followed by its arguments
+     * @param workingDirectory Directory to run the game in
+     * @param eventHandler     Handler to report start and exit of the game to
+     * @return Supervisor of the started game
+     * @throws IOException If the process couldn't be started
+     */
+    @NonNull
+    public static GameProcessSupervisor start(@NonNull List<String> command, @NonNull Path workingDirectory,
+                                              @NonNull LauncherEventHandler eventHandler) throws IOException {
+        Files.createDirectories(workingDirectory);
+        Process process = new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .start();
+
+        GameProcessSupervisor supervisor = new GameProcessSupervisor(process, eventHandler);
+        supervisor.supervise();
+        return supervisor;
+    }
+
+    private void supervise() {
+        MinecraftLogThread output = new MinecraftLogThread(process.getInputStream(), "MinecraftLogThread", false, this::onLine);
+        MinecraftLogThread errors = new MinecraftLogThread(process.getErrorStream(), "MinecraftErrorLogThread", true, this::onLine);
+
+        Thread waiter = new Thread(() -> waitForExit(output, errors), "MinecraftProcessSupervisor");
+        waiter.setDaemon(true);
+        waiter.start();
+    }
+
+    private void onLine(GameLog.Line line) {
+        if (!ready.get() && READY_MARKERS.stream().anyMatch(line.getMessage()::contains)) {
+            markReady();
+        }
+        log.add(line);
+    }
+
+    private void markReady() {
+        if (ready.compareAndSet(false, true)) {
+            logger.info("Minecraft is up after {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            dispatch(eventHandler::onGameStarted);
+        }
+    }
+
+    private void waitForExit(Thread output, Thread errors) {
+        int exitCode;
+        try {
+            if (!process.waitFor(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                markReady();
+            }
+            exitCode = process.waitFor();
+            //let the readers log whatever the game printed last, a crash report in particular
+            output.join(TimeUnit.SECONDS.toMillis(1));
+            errors.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            events.shutdown();
+            return;
+        } finally {
+            log.close();
+        }
+
+        logger.info("Minecraft exited with code {}", exitCode);
+        if (!ready.get() && exitCode != 0) {
+            logger.error("Minecraft Corruption found!");
+            dispatch(() -> eventHandler.onGameCorrupted(exitCode));
+        }
+        dispatch(() -> eventHandler.onGameExited(exitCode));
+        events.shutdown();
+    }
+
+    private void dispatch(Runnable event) {
+        events.execute(() -> {
+            try {
+                event.run();
+            } catch (RuntimeException e) {
+                logger.error("Launcher event handler failed", e);
+            }
+        });
+    }
+
+    /**
+     * @return Whether the game got far enough to count as started
+     */
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    /**
+     * @return Output of the game
+     */
+    @NonNull
+    public GameLog getLog() {
+        return log;
+    }
+
+    @NonNull
+    public Process getProcess() {
+        return process;
+    }
+}
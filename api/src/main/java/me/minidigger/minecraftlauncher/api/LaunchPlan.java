@@ -0,0 +1,377 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import me.minidigger.minecraftlauncher.api.json.launcher.LauncherPackage;
+import me.minidigger.minecraftlauncher.api.verify.AtomicFiles;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything needed to spawn a version, computed once from its resolved version json: classpath, main class,
+ * natives and argument templates.
+ *
+ * Plans are stored in a small binary file per version under {@link Utils#getLaunchPlansLocation()}. A plan is
+ * only used while every version json of the inheritance chain has the size and modification time it had when
+ * the plan was made, and while the launcher runs on the same OS and architecture, as those decide which
+ * libraries are on the classpath.
+ */
+class LaunchPlan {
+    private final static Logger logger = LoggerFactory.getLogger(LaunchPlan.class);
+
+    private final static int MAGIC = 0x4D4C4C50; // MLLP
+    private final static int FORMAT_VERSION = 1;
+
+    private final static Map<String, LaunchPlan> cache = new ConcurrentHashMap<>();
+
+    private final String versionId;
+    private final String rootVersion;
+    private final String environment;
+    private final List<Source> sources;
+    private final String versionName;
+    private final String mainClass;
+    private final String assetsIndexId;
+    private final String classpath;
+    private final List<String> gameArguments;
+    private final List<Native> natives;
+
+    private LaunchPlan(String versionId, String rootVersion, String environment, List<Source> sources, String versionName,
+                       String mainClass, String assetsIndexId, String classpath, List<String> gameArguments, List<Native> natives) {
+        this.versionId = versionId;
+        this.rootVersion = rootVersion;
+        this.environment = environment;
+        this.sources = sources;
+        this.versionName = versionName;
+        this.mainClass = mainClass;
+        this.assetsIndexId = assetsIndexId;
+        this.classpath = classpath;
+        this.gameArguments = gameArguments;
+        this.natives = natives;
+    }
+
+    /**
+     * Builds the plan of given version from its resolved version json
+     *
+     * @param versionId       Version id as selected by the user
+     * @param launcherPackage Resolved version json of {@code versionId}
+     * @param launcherAPI     Launcher whose environment decides which libraries and arguments apply
+     * @return Launch plan, or {@code null} if a version json of the inheritance chain is missing
+     */
+    @Nullable
+    public static LaunchPlan create(@NonNull String versionId, @NonNull LauncherPackage launcherPackage, @NonNull LauncherAPI launcherAPI) {
+        List<String> chain = VersionResolver.getInheritanceChain(versionId);
+        List<Source> sources = new ArrayList<>(chain.size());
+        for (String version : chain) {
+            Source source = Source.of(Utils.getMineCraft_Version_Json(version));
+            if (source == null) {
+                return null;
+            }
+            sources.add(source);
+        }
+        String rootVersion = chain.get(chain.size() - 1);
+
+        Local local = new Local();
+        local.readJson_libraries(launcherPackage, launcherAPI);
+        local.readJson_libraries_natives(launcherPackage, launcherAPI);
+
+        for (Local.LibraryFile library : local.library_files) {
+            local.libraries_path.add(Utils.setMineCraft_librariesLocation(library.getPath()).toString());
+        }
+        String jarVersion = launcherPackage.getJar() != null ? launcherPackage.getJar() : rootVersion;
+        String classpath = local.generateLibrariesArguments() + Utils.getArgsDiv() + Utils.getMineCraft_Versions_X_X_jar(jarVersion);
+
+        List<Native> natives = new ArrayList<>(local.native_files.size());
+        for (Local.LibraryFile nativeJar : local.native_files) {
+            natives.add(new Native(nativeJar.getPath(), nativeJar.getExclude()));
+        }
+
+        String assetsIndexId = launcherPackage.getAssets() != null ? launcherPackage.getAssets() : "NULL";
+        LaunchPlan plan = new LaunchPlan(versionId, rootVersion, getEnvironment(launcherAPI), sources, launcherPackage.getId(),
+                launcherPackage.getMainClass(), assetsIndexId, classpath, local.generateMinecraftArgumentTemplate(launcherPackage, launcherAPI), natives);
+        cache.put(versionId, plan);
+        return plan;
+    }
+
+    /**
+     * Gets the stored plan of given version
+     *
+     * @param versionId   Version id as selected by the user
+     * @param launcherAPI Launcher the plan has to match
+     * @return Launch plan, or {@code null} if there is none or a version json changed since it was made
+     */
+    @Nullable
+    public static LaunchPlan load(@NonNull String versionId, @NonNull LauncherAPI launcherAPI) {
+        String environment = getEnvironment(launcherAPI);
+        LaunchPlan plan = cache.get(versionId);
+        if (plan == null) {
+            plan = read(versionId);
+        }
+        if (plan == null || !plan.environment.equals(environment) || !plan.isUpToDate()) {
+            cache.remove(versionId);
+            return null;
+        }
+
+        cache.put(versionId, plan);
+        return plan;
+    }
+
+    /**
+     * Writes this plan to disk
+     */
+    public void save() {
+        Path file = getLocation(versionId);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(versionId);
+                out.writeUTF(rootVersion);
+                out.writeUTF(environment);
+                out.writeInt(sources.size());
+                for (Source source : sources) {
+                    out.writeUTF(source.getPath());
+                    out.writeLong(source.getSize());
+                    out.writeLong(source.getModified());
+                }
+                out.writeUTF(versionName);
+                out.writeUTF(mainClass);
+                out.writeUTF(assetsIndexId);
+                writeLongString(out, classpath);
+                writeStrings(out, gameArguments);
+                out.writeInt(natives.size());
+                for (Native nativeJar : natives) {
+                    out.writeUTF(nativeJar.path);
+                    writeStrings(out, nativeJar.exclude);
+                }
+            }
+
+            AtomicFiles.move(temporary, file);
+        } catch (IOException e) {
+            logger.warn("Failed to save launch plan of {}", versionId, e);
+        }
+    }
+
+    @NonNull
+    public String getVersionId() {
+        return versionId;
+    }
+
+    /**
+     * Gets the version at the root of the inheritance chain, whose folder holds the natives
+     *
+     * @return Root version id
+     */
+    @NonNull
+    public String getRootVersion() {
+        return rootVersion;
+    }
+
+    @NonNull
+    public String getVersionName() {
+        return versionName;
+    }
+
+    @NonNull
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    @NonNull
+    public String getAssetsIndexId() {
+        return assetsIndexId;
+    }
+
+    /**
+     * Gets the full classpath, libraries followed by the Minecraft jar
+     *
+     * @return Classpath joined with {@link Utils#getArgsDiv()}
+     */
+    @NonNull
+    public String getClasspath() {
+        return classpath;
+    }
+
+    /**
+     * Gets the game arguments with their {@code ${...}} placeholders still in place
+     *
+     * @return Game argument template
+     */
+    @NonNull
+    public List<String> getGameArguments() {
+        return gameArguments;
+    }
+
+    @NonNull
+    public Path getNativesDirectory() {
+        return Utils.getMineCraft_Versions_X_Natives(rootVersion);
+    }
+
+    @NonNull
+    public Path getAssetsRoot() {
+        return Utils.getMineCraftAssetsRootLocation();
+    }
+
+    @NonNull
+    public List<Native> getNatives() {
+        return natives;
+    }
+
+    private boolean isUpToDate() {
+        for (Source source : sources) {
+            if (!source.isUpToDate()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getEnvironment(LauncherAPI launcherAPI) {
+        return launcherAPI.getOperatingSystemName() + "/" + launcherAPI.getOperatingSystemVersion() + "/" + launcherAPI.getArchitecture();
+    }
+
+    private static Path getLocation(String versionId) {
+        return Utils.getLaunchPlansLocation().resolve(versionId + ".bin");
+    }
+
+    @Nullable
+    private static LaunchPlan read(String versionId) {
+        Path file = getLocation(versionId);
+        if (Files.notExists(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.debug("Ignoring launch plan {} with unknown format", file);
+                return null;
+            }
+
+            String id = in.readUTF();
+            String rootVersion = in.readUTF();
+            String environment = in.readUTF();
+            int sourceCount = in.readInt();
+            List<Source> sources = new ArrayList<>(sourceCount);
+            for (int i = 0; i < sourceCount; i++) {
+                sources.add(new Source(in.readUTF(), in.readLong(), in.readLong()));
+            }
+            String versionName = in.readUTF();
+            String mainClass = in.readUTF();
+            String assetsIndexId = in.readUTF();
+            String classpath = readLongString(in);
+            List<String> gameArguments = readStrings(in);
+            int nativeCount = in.readInt();
+            List<Native> natives = new ArrayList<>(nativeCount);
+            for (int i = 0; i < nativeCount; i++) {
+                natives.add(new Native(in.readUTF(), readStrings(in)));
+            }
+
+            if (!id.equals(versionId)) {
+                return null;
+            }
+            return new LaunchPlan(id, rootVersion, environment, sources, versionName, mainClass, assetsIndexId, classpath, gameArguments, natives);
+        } catch (IOException e) {
+            logger.warn("Failed to read launch plan {}", file, e);
+            return null;
+        }
+    }
+
+    // writeUTF is limited to 64 KB, which a modded classpath can exceed
+    private static void writeLongString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readLongString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * A natives jar to extract before launching
+     */
+    static class Native {
+        private final String path;
+        private final List<String> exclude;
+
+        private Native(String path, List<String> exclude) {
+            this.path = path;
+            this.exclude = exclude;
+        }
+
+        /**
+         * @return Path of the jar relative to the libraries folder
+         */
+        @NonNull
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return Entry prefixes which must not be extracted
+         */
+        @NonNull
+        public List<String> getExclude() {
+            return exclude;
+        }
+    }
+}
@@ -34,15 +34,30 @@ import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
+import me.minidigger.minecraftlauncher.api.download.DownloadScheduler;
 import me.minidigger.minecraftlauncher.api.events.LauncherEventHandler;
+import me.minidigger.minecraftlauncher.api.json.launcher.Downloadable;
+import me.minidigger.minecraftlauncher.api.json.launcher.LauncherPackage;
+import me.minidigger.minecraftlauncher.api.json.launcher.VersionManifest;
+import me.minidigger.minecraftlauncher.api.json.launcher.VersionType;
 import me.minidigger.minecraftlauncher.api.patch.JarPatcher;
+import me.minidigger.minecraftlauncher.api.verify.ExpectedFile;
+import me.minidigger.minecraftlauncher.api.verify.VerificationLevel;
+import me.minidigger.minecraftlauncher.api.verify.VerificationReport;
 
 /**
  * @author ammar
@@ -52,6 +67,11 @@ public class LauncherAPI {
     private final static Marker downloadMarker = MarkerFactory.getMarker("DOWNLOAD");
     private final static Marker runMarker = MarkerFactory.getMarker("RUN");
 
+    /**
+     * How long a downloaded version manifest is used without asking the server whether it changed
+     */
+    public final static long VERSION_MANIFEST_TTL = TimeUnit.MINUTES.toMillis(10);
+
     private LauncherEventHandler eventHandler = new LauncherEventHandler() {
     };
 
@@ -65,22 +85,125 @@ public class LauncherAPI {
         };
     }
 
-    public List<String> getInstallableVersionsList() {
-        Local local = new Local();
-        local.readJson_versions_id(Utils.getMineCraft_Version_Manifest_json());
-        local.readJson_versions_type(Utils.getMineCraft_Version_Manifest_json());
-        //local.version_manifest_versions_id;
-        List<String> InstallableVersionsList = new ArrayList<>();
+    /**
+     * Gets the operating system name as used by version json rules and natives
+     *
+     * @return {@code windows}, {@code osx}, {@code linux} or {@code unknown}
+     */
+    @NonNull
+    public String getOperatingSystemName() {
+        switch (Utils.getOS()) {
+            case WINDOWS:
+                return "windows";
+            case MAC:
+                return "osx";
+            case LINUX:
+                return "linux";
+            default:
+                return "unknown";
+        }
+    }
 
-        if (local.version_manifest_versions_id.size() == local.version_manifest_versions_type.size()) {
-            //we can merge them..
-            for (int i = 0; i < local.version_manifest_versions_id.size(); i++) {
-                InstallableVersionsList.add(local.version_manifest_versions_id.get(i) + " % " + local.version_manifest_versions_type.get(i));
-            }
-        } else {
-            //don't merge them..
+    /**
+     * Gets the operating system version, which version json rules match with regular expressions
+     *
+     * @return Operating system version
+     */
+    @NonNull
+    public String getOperatingSystemVersion() {
+        return System.getProperty("os.version", "");
+    }
 
-            InstallableVersionsList.addAll(local.version_manifest_versions_id);
+    /**
+     * Gets the architecture as used by version json rules
+     *
+     * @return {@code x86} for 32-bit x86, {@code x86_64} for 64-bit x86, otherwise the JVM's {@code os.arch}
+     */
+    @NonNull
+    public String getArchitecture() {
+        String arch = System.getProperty("os.arch", "").toLowerCase(Locale.ENGLISH);
+        switch (arch) {
+            case "x86":
+            case "i386":
+            case "i486":
+            case "i586":
+            case "i686":
+                return "x86";
+            case "amd64":
+            case "x86_64":
+                return "x86_64";
+            default:
+                return arch;
+        }
+    }
+
+    /**
+     * Gets the bitness substituted for {@code ${arch}} in natives classifiers
+     *
+     * @return {@code 32} or {@code 64}
+     */
+    @NonNull
+    public String getArchitectureBits() {
+        String dataModel = System.getProperty("sun.arch.data.model");
+        if (dataModel != null) {
+            return dataModel;
+        }
+        return System.getProperty("os.arch", "").contains("64") ? "64" : "32";
+    }
+
+    /**
+     * Checks whether a launcher feature is enabled, which version json rules may depend on
+     *
+     * @param feature Feature name, e.g. {@code is_demo_user}
+     * @return Whether the feature is enabled
+     */
+    public boolean isFeatureEnabled(@NonNull String feature) {
+        return false;
+    }
+
+    /**
+     * Gets the downloaded version manifest. It is parsed once and shared by all {@link LauncherAPI} instances
+     * until {@link #downloadVersionManifest()} replaces it
+     *
+     * @return Version manifest, or {@code null} if it wasn't downloaded yet
+     */
+    @Nullable
+    public VersionManifest getVersionManifest() {
+        return VersionMetadataCache.getVersionManifest();
+    }
+
+    /**
+     * Gets all versions which can be downloaded, in manifest order
+     *
+     * @return Installable versions, empty if the version manifest wasn't downloaded yet
+     */
+    @NonNull
+    public List<VersionManifest.VersionInfo> getInstallableVersions() {
+        VersionManifest versionManifest = getVersionManifest();
+        return versionManifest != null ? versionManifest.getVersions() : new ArrayList<>();
+    }
+
+    /**
+     * Gets all versions of given type which can be downloaded, in manifest order
+     *
+     * @param type Version type
+     * @return Installable versions, empty if the version manifest wasn't downloaded yet
+     */
+    @NonNull
+    public List<VersionManifest.VersionInfo> getInstallableVersions(@NonNull VersionType type) {
+        VersionManifest versionManifest = getVersionManifest();
+        return versionManifest != null ? versionManifest.getVersions(type) : new ArrayList<>();
+    }
+
+    /**
+     * @deprecated Entries are formatted as {@code "id % type"}, use {@link #getInstallableVersions()} instead
+     */
+    @Deprecated
+    public List<String> getInstallableVersionsList() {
+        List<String> InstallableVersionsList = new ArrayList<>();
+        for (VersionManifest.VersionInfo version : getInstallableVersions()) {
+            String type = version.getType() != null ? version.getType().name().toLowerCase(Locale.ROOT) : "unknown";
+            InstallableVersionsList.add(version.getId() + " % " + type);
         }
         return InstallableVersionsList;
     }
@@ -159,193 +282,54 @@ public class LauncherAPI {
         */
     }
 
-    public void runMinecraft(String UsernameToUse, String VersionToUse, Boolean HashCheck, Boolean injectNetty) {
+    public boolean runMinecraft(String UsernameToUse, String VersionToUse, Boolean HashCheck, Boolean injectNetty) {
+        return runMinecraft(UsernameToUse, VersionToUse, HashCheck ? getVerificationLevel() : VerificationLevel.NONE, injectNetty);
+    }
+
+    /**
+     * Starts the game
+     *
+     * @param UsernameToUse Player name
+     * @param VersionToUse  Version to start
+     * @param level         How thoroughly installed files are checked before starting. {@link VerificationLevel#NONE}
+     *                      skips validation and doesn't refresh the version json either
+     * @param injectNetty   Whether to patch the server blacklist
+     * @return Whether the game was started after the installation verified at given level, with nothing left
+     * missing or corrupt. Always {@code false} for {@link VerificationLevel#NONE}
+     */
+    public boolean runMinecraft(String UsernameToUse, String VersionToUse, VerificationLevel level, Boolean injectNetty) {
         Local local = new Local();
-        //get list of all 
-        local.readJson_versions_id(Utils.getMineCraft_Version_Manifest_json());
-        local.readJson_versions_type(Utils.getMineCraft_Version_Manifest_json());
-        local.readJson_versions_url(Utils.getMineCraft_Version_Manifest_json());
 
         //inject netty
         if (injectNetty) {
             injectNetty();
         }
 
-        //declaration for mods
-        String MOD_inheritsFrom = null;
-        String MOD_jar = null;
-        String MOD_assets = null;
-        String MOD_minecraftArguments;
-        String MOD_mainClass = null;
-        String MOD_id = null;
-        //check if it is vanilla or not
-        if (local.checkIfVanillaMC(VersionToUse).equals(true)) {
-            logger.info(runMarker, "Vanilla Minecraft found!");
+        //without validation a stored launch plan is all we need, no json has to be read
+        LaunchPlan plan = level == VerificationLevel.NONE ? LaunchPlan.load(VersionToUse, this) : null;
+        AtomicBoolean verified = new AtomicBoolean();
+        if (plan != null) {
+            logger.info(runMarker, "Using launch plan of {}", VersionToUse);
         } else {
-            logger.info(runMarker, "Modded Minecraft found!");
-            local.MOD_readJson_libraries_name_PLUS_url(Utils.getMineCraft_Version_Json(VersionToUse));
-            for (int i = 0; i < local.version_name_list.size(); i++) {
-                logger.info(runMarker, local.version_name_list.get(i));
-                logger.info(runMarker, local.HALF_URL_version_url_list.get(i));
-            }
-
-            logger.info(runMarker, "Fixing url using name.");
-            for (int i = 0; i < local.version_name_list.size(); i++) {
-                local.version_path_list.add(local.generateLibrariesPath(local.version_name_list.get(i)));
-
-            }
-
-            for (int i = 0; i < local.version_name_list.size(); i++) {
-                local.version_url_list.add(local.HALF_URL_version_url_list.get(i) + "/" + local.version_path_list.get(i));
-            }
-
-            MOD_inheritsFrom = local.readJson_inheritsFrom(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(runMarker, "inheritsFrom: " + MOD_inheritsFrom);
-
-            MOD_jar = local.readJson_jar(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(runMarker, "jar: " + MOD_jar);
-
-            MOD_assets = local.readJson_assets(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(runMarker, "assets: " + MOD_assets);
-
-            MOD_minecraftArguments = local.readJson_minecraftArguments(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(runMarker, "minecraftArguments: " + MOD_minecraftArguments);
-
-            MOD_mainClass = local.readJson_mainClass(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(runMarker, "mainClass: " + MOD_mainClass);
-
-            MOD_id = local.readJson_id(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(runMarker, "id: " + MOD_id);
-        }
-
-        if (MOD_inheritsFrom == null) {
-            logger.info(runMarker, "Using: " + VersionToUse);
-
-        } else {
-            VersionToUse = MOD_inheritsFrom;
-            logger.info(runMarker, "Using: " + VersionToUse);
-
-        }
-
-        //incase the url is empty.. we have to assume that the user has old path system.
-        for (int i = 0; i < local.version_manifest_versions_id.size(); i++) {
-            logger.debug(runMarker, local.version_manifest_versions_id.get(i));
-            logger.debug(runMarker, local.version_manifest_versions_type.get(i));
-            logger.debug(runMarker, local.version_manifest_versions_url.get(i));
-        }
-
-        //download 1.7.10.json_libs
-        try {
-            for (int i = 0; i < local.version_manifest_versions_id.size(); i++) {
-                if (local.version_manifest_versions_id.get(i).equals(VersionToUse)) {
-                    //we will download versionjson everytime.
-                    if (HashCheck) {
-                        Network.downloadVersionJson(local.version_manifest_versions_url.get(i), local.version_manifest_versions_id.get(i));
-                    }
-                    break;
-                } else {
-                    //do nothing...
-                }
-            }
-
-        } catch (Exception e) {
-            logger.error("Something went wrong downloadVersionJson" + e);
-        }
-
-        logger.info(runMarker, "{}", Utils.getMinecraftDataDirectory());
-
-        local.generateVersionJsonPathList(Utils.getMineCraftVersionsLocation());
-        local.generateVersionList(Utils.getMineCraftVersionsLocation());
-
-        for (int i = 0; i < local.versions_json_path_list.size(); i++) {
-            logger.info(runMarker, local.versions_json_path_list.get(i));
-        }
-
-        for (int i = 0; i < local.versions_list.size(); i++) {
-            logger.info(runMarker, local.versions_list.get(i));
-        }
-
-        logger.info(runMarker, "{}", Utils.getMineCraft_Version_Json(VersionToUse));
-
-        try {
-            local.readJson_libraries_downloads_artifact_url(Utils.getMineCraft_Version_Json(VersionToUse));
-
-        } catch (Exception ex) {
-            logger.error("Unable to get libraries_downloads_artifact_url " + ex);
-        }
-        try {
-            local.readJson_libraries_downloads_artifact_path(Utils.getMineCraft_Version_Json(VersionToUse));
-
-        } catch (Exception ex) {
-            logger.error("Unable to get libraries_downloads_artifact_path " + ex);
-        }
-        try {
-            local.readJson_libraries_name(Utils.getMineCraft_Version_Json(VersionToUse));
-
-        } catch (Exception ex) {
-            logger.error("Unable to get libraries_name " + ex);
-        }
-
-        try {
-            logger.info(runMarker, local.readJson_assetIndex_url(Utils.getMineCraft_Version_Json(VersionToUse)));
-
-        } catch (Exception ex) {
-            logger.error("Unable to get assetIndex_url" + ex);
-        }
-        try {
-            logger.info(runMarker, local.readJson_assetIndex_id(Utils.getMineCraft_Version_Json(VersionToUse)));
-        } catch (Exception ex) {
-            logger.error("Unable to get assetIndex_id" + ex);
-        }
-
-        logger.info(runMarker, "{}", Utils.getMineCraftAssetsIndexes_X_json(VersionToUse));
-
-        try {
-            local.readJson_objects_KEY(Utils.getMineCraftAssetsIndexes_X_json(local.readJson_assetIndex_id(Utils.getMineCraft_Version_Json(VersionToUse))));
-        } catch (Exception e) {
-            logger.error("Error reading objects KEY" + e);
-        }
-        try {
-            local.readJson_objects_KEY_hash(Utils.getMineCraftAssetsIndexes_X_json(local.readJson_assetIndex_id(Utils.getMineCraft_Version_Json(VersionToUse))));
-        } catch (Exception e) {
-            logger.error("Error reading objects KEY_hash" + e);
-
-        }
-
-        if (HashCheck) {
-            eventHandler.onGameStart(LauncherEventHandler.StartStatus.VALIDATING);
-            try {
-                for (int i = 0; i < local.objects_hash.size(); i++) {
-                    logger.info(runMarker, "HASH: " + local.objects_hash.get(i));
-                    logger.info(runMarker, "FOLDER: " + local.objects_hash.get(i).substring(0, 2));
-                    logger.info(runMarker, "KEY: " + local.objects_KEY.get(i));
-                    Utils.copyToVirtual(local.objects_hash.get(i).substring(0, 2), local.objects_hash.get(i), local.objects_KEY.get(i));
-                    //generate virtual folder as well.
-
-                }
-
-            } catch (Exception e) {
-                logger.error("Error reading objects KEY + KEY_hash" + e);
-
+            plan = createLaunchPlan(local, VersionToUse, level, verified);
+            if (plan == null) {
+                return false;
             }
+            plan.save();
         }
+        VersionToUse = plan.getRootVersion();
 
         eventHandler.onGameStart(LauncherEventHandler.StartStatus.DOWNLOADING_NATIVES);
 
-        logger.info(runMarker, "Getting NATIVES URL");
-        local.readJson_libraries_downloads_classifiers_natives_X(Utils.getMineCraft_Versions_X_X_json(VersionToUse));
-        logger.info(runMarker, "Getting NATIVES PATH");
-        local.readJson_libraries_downloads_classifiers_natives_Y(Utils.getMineCraft_Versions_X_X_json(VersionToUse));
-
-        for (int i = 0; i < local.version_url_list_natives.size(); i++) {
-            logger.info(runMarker, "NATIVE URL: " + local.version_url_list_natives.get(i));
-            //extract them here..
-            logger.info(runMarker, "Extracting... {} {}", local.version_url_list_natives.get(i), Utils.getMineCraft_Versions_X_Natives_Location(VersionToUse));
-
-            Utils.jarExtract(Paths.get(local.version_path_list_natives.get(i)), Utils.getMineCraft_Versions_X_Natives_Location(VersionToUse));
+        logger.info(runMarker, "Getting NATIVES");
+        Map<String, List<String>> nativeJars = new LinkedHashMap<>();
+        for (LaunchPlan.Native nativeJar : plan.getNatives()) {
+            nativeJars.put(nativeJar.getPath(), nativeJar.getExclude());
         }
+        logger.info(runMarker, "Extracting {} native jars to {}", nativeJars.size(), plan.getNativesDirectory());
+        NativesExtractor.extractAll(plan.getNativesDirectory(), nativeJars);
+        Utils.getArtifactLedger().save();
 
-        //String HalfArgumentTemplate = local.readJson_minecraftArguments(Utils.getMineCraft_Versions_X_X_json(VersionToUse));
         int Xmx = this.getMemory();
         int Xms = this.getMinMemory();
         int Width = this.getWidth();
@@ -354,44 +338,18 @@ public class LauncherAPI {
         String JVMArgument = this.getJVMArgument();
 
 
-        String mainClass;
-        if (MOD_mainClass == null) {
-            mainClass = local.readJson_mainClass(Utils.getMineCraft_Versions_X_X_json(VersionToUse));
-
-        } else {
-            mainClass = MOD_mainClass;
-        }
+        String mainClass = plan.getMainClass();
 
-        Path NativesDir = Utils.getMineCraft_Versions_X_Natives(VersionToUse);
-        String assetsIdexId;
-        if (MOD_assets == null) {
-            assetsIdexId = local.readJson_assets(Utils.getMineCraft_Versions_X_X_json(VersionToUse));
-
-        } else {
-            assetsIdexId = MOD_assets;
-        }
-        if (assetsIdexId == null) {
-            assetsIdexId = "NULL";
-        }
+        Path NativesDir = plan.getNativesDirectory();
+        String assetsIdexId = plan.getAssetsIndexId();
 
         Path gameDirectory = Utils.getMinecraftDataDirectory();
-        Path AssetsRoot = Utils.getMineCraftAssetsRootLocation();
+        Path AssetsRoot = plan.getAssetsRoot();
 
-        String versionName;
-        if (MOD_id == null) {
-            versionName = local.readJson_id(Utils.getMineCraft_Versions_X_X_json(VersionToUse));
-        } else {
-            versionName = MOD_id;
-        }
+        String versionName = plan.getVersionName();
 
         String authuuid = local.readJson_id(Utils.getMineCraft_X_json(UsernameToUse));
         String Username = UsernameToUse;
-        Path MinecraftJar;
-        if (MOD_jar == null) {
-            MinecraftJar = Utils.getMineCraft_Versions_X_X_jar(VersionToUse);
-        } else {
-            MinecraftJar = Utils.getMineCraft_Versions_X_X_jar(MOD_jar);
-        }
 
         String VersionType = this.getVersionData();
         String AuthSession = "OFFLINE";
@@ -399,14 +357,7 @@ public class LauncherAPI {
         Path GameAssets = Utils.getMineCraftAssetsVirtualLegacyLocation();
         logger.debug("NativesPath: " + NativesDir);
 
-        for (int i = 0; i < local.version_path_list.size(); i++) {
-            local.libraries_path.add(Utils.setMineCraft_librariesLocation(local.version_path_list.get(i)).toString());
-            logger.debug(local.libraries_path.get(i));
-        }
-
-        String HalfLibraryArgument = local.generateLibrariesArguments();
-        String FullLibraryArgument = local.generateLibrariesArguments() + Utils.getArgsDiv() + MinecraftJar;
-        logger.debug("HalfLibraryArgument: " + HalfLibraryArgument);
+        String FullLibraryArgument = plan.getClasspath();
         logger.debug("FullLibraryArgument: " + FullLibraryArgument);
 
         //argument patch for netty and patchy comes here
@@ -470,12 +421,11 @@ public class LauncherAPI {
         }
         //argument patch netty and patchy ends here
 
-        String[] HalfArgument = local.generateMinecraftArguments(Username, versionName, gameDirectory, AssetsRoot, assetsIdexId, authuuid, "aeef7bc935f9420eb6314dea7ad7e1e5", "{\"twitch_access_token\":[\"emoitqdugw2h8un7psy3uo84uwb8raq\"]}", "mojang", VersionType, GameAssets, AuthSession);
+        String[] HalfArgument = local.generateMinecraftArguments(plan.getGameArguments(), Username, versionName, gameDirectory, AssetsRoot, assetsIdexId, authuuid, "aeef7bc935f9420eb6314dea7ad7e1e5", "{\"twitch_access_token\":[\"emoitqdugw2h8un7psy3uo84uwb8raq\"]}", "mojang", VersionType, GameAssets, AuthSession);
         //logger.debug("HalfArgument: " + HalfArgument);
         for (String HalfArgsVal : HalfArgument) {
             logger.debug("HalfArg: " + HalfArgsVal);
         }
-        logger.debug("Minecraft.jar: " + MinecraftJar);
 
         logger.info(runMarker, "username: " + Username);
         logger.info(runMarker, "version number: " + versionName);
@@ -487,7 +437,7 @@ public class LauncherAPI {
         //logger.info(runMarker, local.generateRunnableArguments(Xmx, NativesDir, FullLibraryArgument, mainClass, HalfArgument));
 
         try {
-            String cmds[] = {"-Xms" + Xms + "M", "-Xmx" + Xmx + "M", "-XX:HeapDumpPath=MojangTricksIntelDriversForPerformance_javaw.exe_minecraft.exe.heapdump", "-Djava.library.path=" + NativesDir, "-cp", FullLibraryArgument, mainClass, "--width", String.valueOf(Width), "--height", String.valueOf(Height)};
+            String cmds[] = {"-Xms" + Xms + "M", "-Xmx" + Xmx + "M", "-XX:HeapDumpPath=MojangTricksIntelDriversForPerformance_javaw.exe_minecraft.exe.heapdump", "-Dstdout.encoding=UTF-8", "-Dstderr.encoding=UTF-8", "-Dsun.stdout.encoding=UTF-8", "-Dsun.stderr.encoding=UTF-8", "-Djava.library.path=" + NativesDir, "-cp", FullLibraryArgument, mainClass, "--width", String.valueOf(Width), "--height", String.valueOf(Height)};
             //put jvm arguments here
             String[] JVMArguments = JVMArgument.split(" ");
             //we now have all the arguments. merge cmds with JVMArguments
@@ -505,27 +455,127 @@ public class LauncherAPI {
             }
             eventHandler.onGameStart(LauncherEventHandler.StartStatus.STARTING);
             logger.info(runMarker, "Starting game... Please wait....");
-            Process process = Runtime.getRuntime().exec(finalArgs);
+            gameLog = GameProcessSupervisor.start(Arrays.asList(finalArgs), gameDirectory, eventHandler).getLog();
+        } catch (Exception e) {
+            logger.error(runMarker, "Failed to start Minecraft", e);
+            eventHandler.onGameCorrupted(-1);
+            return false;
+        }
+        return verified.get();
+    }
 
-            new MinecraftLogThread(process.getInputStream());
+    /*
+     * Reads the version json, validates the installation if asked to and builds the launch plan from it.
+     * verified is set once the validation left nothing missing or corrupt
+     */
+    @Nullable
+    private LaunchPlan createLaunchPlan(Local local, String VersionToUse, VerificationLevel level, AtomicBoolean verified) {
+        boolean HashCheck = level != VerificationLevel.NONE;
+        VersionManifest versionManifest = getVersionManifest();
+
+        //modded versions are resolved together with the versions they inherit from, VersionToUse becomes the vanilla base
+        String versionId = VersionToUse;
+        if (versionManifest != null && versionManifest.contains(VersionToUse)) {
+            logger.info(runMarker, "Vanilla Minecraft found!");
+        } else {
+            logger.info(runMarker, "Modded Minecraft found!");
+            VersionToUse = VersionResolver.getRootVersion(versionId);
+            logger.info(runMarker, "inheritsFrom: " + VersionToUse);
+        }
+        logger.info(runMarker, "Using: " + VersionToUse);
 
-            try {
-                process.waitFor(10, TimeUnit.SECONDS);
-                //process.waitFor();
-                if (process.exitValue() != 0) {
-                    //something went wrong.
-                    eventHandler.onGameCorrupted(process.exitValue());
-                    logger.error("Minecraft Corruption found!");
-                }
-            } catch (Exception ex) {
-                //nothing to print.. everything went fine.
-                eventHandler.onGameStarted();
-                logger.info(runMarker, "Minecraft Initialized!");
+        //download 1.7.10.json_libs
+        try {
+            //incase the version isn't in the manifest.. we have to assume that the user has old path system.
+            VersionManifest.VersionInfo versionInfo = versionManifest != null ? versionManifest.getVersion(VersionToUse) : null;
+            //only transferred if the copy on disk doesn't match the manifest
+            if (versionInfo != null && HashCheck) {
+                Network.downloadVersionJson(versionInfo.getUrl().toString(), versionInfo.getId(), versionInfo.getSha1());
             }
 
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Something went wrong downloadVersionJson" + e);
+        }
+
+        logger.info(runMarker, "{}", Utils.getMinecraftDataDirectory());
+
+        local.generateVersionJsonPathList(Utils.getMineCraftVersionsLocation());
+        local.generateVersionList(Utils.getMineCraftVersionsLocation());
+
+        for (int i = 0; i < local.versions_json_path_list.size(); i++) {
+            logger.info(runMarker, local.versions_json_path_list.get(i));
         }
+
+        for (int i = 0; i < local.versions_list.size(); i++) {
+            logger.info(runMarker, local.versions_list.get(i));
+        }
+
+        logger.info(runMarker, "{}", Utils.getMineCraft_Version_Json(VersionToUse));
+
+        //everything below reads from this one resolved version
+        LauncherPackage versionPackage = VersionResolver.resolve(versionId);
+        if (versionPackage == null) {
+            logger.error(runMarker, "Unable to read version json of {}", versionId);
+            return null;
+        }
+
+        //the asset index is only needed to validate and to fill the virtual assets folder
+        if (HashCheck) {
+            LauncherPackage.AssetIndexInfo assetIndex = versionPackage.getAssetIndex();
+            if (assetIndex != null) {
+                logger.info(runMarker, "{}", assetIndex.getUrl());
+                logger.info(runMarker, assetIndex.getId());
+
+                Path assetIndexJson = Utils.getMineCraftAssetsIndexes_X_json(assetIndex.getId());
+                logger.info(runMarker, "{}", assetIndexJson);
+                local.readJson_objects(assetIndexJson);
+            } else {
+                logger.error(runMarker, "Unable to get assetIndex of {}", VersionToUse);
+            }
+
+            eventHandler.onGameStart(LauncherEventHandler.StartStatus.VALIDATING);
+            verified.set(validateInstallation(local, versionPackage, getJarVersion(versionPackage, versionId), level));
+            //generate virtual folder as well, only old indexes need one.
+            if (assetIndex != null) {
+                VirtualAssetTree.build(assetIndex.getId(), local.assetObjects);
+            }
+        }
+
+        LaunchPlan plan = LaunchPlan.create(versionId, versionPackage, this);
+        if (plan == null) {
+            logger.error(runMarker, "Unable to read version json of {}", versionId);
+        }
+        return plan;
+    }
+
+    /**
+     * Sets how large files are downloaded. Files of at least {@code threshold} bytes are split into
+     * {@code segments} byte ranges which are downloaded in parallel, if the server supports range requests.
+     * This applies to downloads of every {@link LauncherAPI} instance
+     *
+     * @param threshold_ Size in bytes from which files are downloaded in segments, 8 MiB by default. Must be positive
+     * @param segments_  Number of segments, 4 by default. 1 downloads every file as a single stream
+     * @throws IllegalArgumentException If the threshold isn't positive
+     */
+    public void setSegmentedDownloads(long threshold_, int segments_) {
+        if (threshold_ <= 0) {
+            throw new IllegalArgumentException("Segmented download threshold must be positive");
+        }
+        Network.setSegmentedDownloads(threshold_, Math.max(1, segments_));
+    }
+
+    @Nullable
+    private volatile GameLog gameLog;
+
+    /**
+     * Gets the output of the game which was started last. The output is also written to
+     * {@link Utils#getGameLogsLocation()}, one file per session
+     *
+     * @return Output of the last game, {@code null} if no game was started yet
+     */
+    @Nullable
+    public GameLog getGameLog() {
+        return gameLog;
     }
 
     private String jvmArgument = "";
@@ -598,109 +648,267 @@ public class LauncherAPI {
         return versionData;
     }
 
+    private int downloadThreads = 8;
+
+    public void setDownloadThreads(int downloadThreads_) {
+        downloadThreads = downloadThreads_;
+    }
+
+    private int getDownloadThreads() {
+        return downloadThreads;
+    }
+
+    private int downloadThreadsPerHost = 6;
+
+    public void setDownloadThreadsPerHost(int downloadThreadsPerHost_) {
+        downloadThreadsPerHost = downloadThreadsPerHost_;
+    }
+
+    private int getDownloadThreadsPerHost() {
+        return downloadThreadsPerHost;
+    }
+
+    private VerificationLevel verificationLevel = VerificationLevel.MTIME;
+
+    public void setVerificationLevel(@NonNull VerificationLevel verificationLevel_) {
+        verificationLevel = verificationLevel_;
+    }
+
+    private VerificationLevel getVerificationLevel() {
+        return verificationLevel;
+    }
+
+    /**
+     * Opens connections to the Mojang download servers in the background. Call this early, e.g. when the
+     * launcher starts, so that later downloads can reuse the connections right away
+     */
+    public void prewarmConnections() {
+        Network.prewarmConnections();
+    }
+
     public void downloadVersionManifest() {
         logger.debug("Downloading: version_manifest.json");
-        Network.downloadVersionManifest(Utils.getMineCraft_Version_Manifest_json());
+        Network.downloadVersionManifest(Utils.getMineCraft_Version_Manifest_json(), 0);
 
     }
 
+    /**
+     * Checks for a new version manifest, unless that was done less than {@link #VERSION_MANIFEST_TTL} ago.
+     * Until this returns, {@link #getVersionManifest()} keeps returning the last known manifest
+     *
+     * @return Whether a different manifest was downloaded
+     */
+    public boolean refreshVersionManifest() {
+        return Network.downloadVersionManifest(Utils.getMineCraft_Version_Manifest_json(), VERSION_MANIFEST_TTL);
+    }
+
     public void downloadProfile(String UsernameToUse) {
         logger.debug("Downloading: " + UsernameToUse + ".json");
         Network.downloadProfile(UsernameToUse);
 
     }
 
-    public void downloadMinecraft(String VersionToUse, Boolean ForceDownload) {
+    /**
+     * Deletes asset objects which no asset index refers to anymore, e.g. after versions were removed. Objects are
+     * marked from the asset indexes and the objects folder is swept in parallel. Must not run while downloading
+     *
+     * @param installedVersionsOnly Only keep objects of the asset indexes installed versions use, instead of
+     *                              those of every index in {@code assets/indexes}
+     * @param dryRun                Don't delete anything, only report what would be deleted
+     * @return {@link AssetCollectionReport} with the reclaimed space, or {@code null} if an asset index couldn't
+     * be read. Nothing is deleted in that case
+     */
+    @Nullable
+    public AssetCollectionReport collectAssetGarbage(boolean installedVersionsOnly, boolean dryRun) {
+        return AssetGarbageCollector.collect(installedVersionsOnly, dryRun);
+    }
+
+    /**
+     * Deletes unpacked natives of jars which no installed version uses anymore from the cache all versions share.
+     * Must not run while downloading
+     *
+     * @param dryRun Don't delete anything, only report what would be deleted
+     * @return Bytes which were, or in a dry run would be, freed
+     */
+    public long collectNativesGarbage(boolean dryRun) {
+        return NativesExtractor.collectGarbage(dryRun);
+    }
+
+    /**
+     * Checks every library, the client jar and all asset objects of given version. Hashing is spread
+     * over all cores
+     *
+     * @param version Version to check
+     * @param level   How thoroughly to check the files
+     * @return {@link VerificationReport} listing which files are ok, missing or corrupt
+     */
+    @NonNull
+    public VerificationReport verifyInstallation(@NonNull String version, @NonNull VerificationLevel level) {
         Local local = new Local();
-        logger.info(downloadMarker, "Downlaoding: " + VersionToUse);
+        LauncherPackage launcherPackage = VersionResolver.resolve(version);
+        if (launcherPackage != null && launcherPackage.getAssetIndex() != null) {
+            local.readJson_objects(Utils.getMineCraftAssetsIndexes_X_json(launcherPackage.getAssetIndex().getId()));
+        }
 
-        //add version in launcher_profiles.json
-        local.writeJson_launcher_profiles("_Cracked_" + Utils.nextSessionId() + "_" + VersionToUse, VersionToUse);
+        VerificationReport report = Utils.getVerificationEngine().verify(getExpectedFiles(local, launcherPackage, getJarVersion(launcherPackage, version)), level);
+        Utils.getArtifactLedger().save();
+        return report;
+    }
 
-        //get list of all 
-        local.readJson_versions_id(Utils.getMineCraft_Version_Manifest_json());
-        local.readJson_versions_type(Utils.getMineCraft_Version_Manifest_json());
-        local.readJson_versions_url(Utils.getMineCraft_Version_Manifest_json());
-
-        //declaration for mods
-        String MOD_inheritsFrom = null;
-        String MOD_jar = null;
-        String MOD_assets;
-        String MOD_minecraftArguments;
-        String MOD_mainClass;
-        String MOD_id;
-        //check if it is vanilla or not
-        if (local.checkIfVanillaMC(VersionToUse).equals(true)) {
-            logger.info(runMarker, "Vanilla Minecraft found!");
+    /*
+     * Verifies the installation before launching and downloads anything missing or corrupt again.
+     * With the artifact ledger, files which are unchanged since they were last verified only cost a stat.
+     * Returns whether the installation is intact, after repairing it if needed.
+     */
+    private boolean validateInstallation(Local local, LauncherPackage launcherPackage, String version, VerificationLevel level) {
+        VerificationReport report = Utils.getVerificationEngine().verify(getExpectedFiles(local, launcherPackage, version), level);
+        logger.info(runMarker, "Verified installation of {}: {}", version, report);
+
+        boolean intact = report.isIntact();
+        if (!intact) {
+            try (DownloadScheduler scheduler = new DownloadScheduler(getDownloadThreads(), getDownloadThreadsPerHost(), eventHandler)) {
+                intact = true;
+                for (ExpectedFile file : report.getBroken()) {
+                    if (file.getUrl() == null) {
+                        logger.error(runMarker, "Can't repair {}, no download url known", file.getPath());
+                        intact = false;
+                        continue;
+                    }
+                    scheduler.submit(getDownloadingStatus(file, version), file.getUrl(), () -> Network.downloadExpectedFile(file));
+                }
 
-        } else {
-            logger.info(runMarker, "Modded Minecraft found!");
-            local.MOD_readJson_libraries_name_PLUS_url(Utils.getMineCraft_Version_Json(VersionToUse));
-            for (int i = 0; i < local.version_name_list.size(); i++) {
-                logger.debug(local.version_name_list.get(i));
-                logger.debug(local.HALF_URL_version_url_list.get(i));
+                List<DownloadScheduler.Failure> failures = scheduler.awaitCompletion();
+                if (!failures.isEmpty()) {
+                    logger.error(runMarker, "Failed to repair {} files", failures.size());
+                    intact = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn(runMarker, "Repair interrupted");
+                intact = false;
             }
+        }
 
-            logger.info(downloadMarker, "Fixing url using name.");
-            for (int i = 0; i < local.version_name_list.size(); i++) {
-                local.version_path_list.add(local.generateLibrariesPath(local.version_name_list.get(i)));
+        Utils.getArtifactLedger().save();
+        return intact;
+    }
 
-            }
+    private List<ExpectedFile> getExpectedFiles(Local local, @Nullable LauncherPackage launcherPackage, String version) {
+        List<ExpectedFile> files = new ArrayList<>();
+
+        if (launcherPackage != null) {
+            Set<String> paths = new HashSet<>();
+            for (LauncherPackage.Library library : launcherPackage.getLibraries()) {
+                LauncherPackage.Library.Downloads downloads = library.getDownloads();
+                if (downloads == null) {
+                    //maven libraries of modded versions come without a hash, only their presence can be checked
+                    String path = local.generateLibrariesPath(library.getName());
+                    String repository = library.getUrl() != null ? library.getUrl() : Network.minecraftLibrariesUrl;
+                    if (paths.add(path)) {
+                        files.add(new ExpectedFile(Utils.getMineCraftLibrariesLocation().resolve(path),
+                                null, 0, repository.replaceAll("/+$", "") + "/" + path));
+                    }
+                    continue;
+                }
+
+                List<Downloadable> artifacts = new ArrayList<>();
+                if (downloads.getArtifact() != null) {
+                    artifacts.add(downloads.getArtifact());
+                }
+                if (downloads.getClassifiers() != null) {
+                    artifacts.addAll(downloads.getClassifiers().values());
+                }
 
-            for (int i = 0; i < local.version_name_list.size(); i++) {
-                local.version_url_list.add(local.HALF_URL_version_url_list.get(i) + "/" + local.version_path_list.get(i));
+                for (Downloadable artifact : artifacts) {
+                    if (artifact.getPath() != null && paths.add(artifact.getPath())) {
+                        files.add(new ExpectedFile(Utils.getMineCraftLibrariesLocation().resolve(artifact.getPath()),
+                                artifact.getSha1(), artifact.getSize(), artifact.getUrl().toString()));
+                    }
+                }
             }
-            for (int i = 0; i < local.version_name_list.size(); i++) {
-                logger.info(downloadMarker, "Downloading: " + local.version_url_list.get(i));
-                Network.downloadLibraries(local.version_url_list.get(i), local.version_path_list.get(i), ForceDownload);
 
+            Downloadable client = launcherPackage.getDownloads() != null ? launcherPackage.getDownloads().get("client") : null;
+            if (client != null) {
+                files.add(new ExpectedFile(Utils.getMineCraft_Versions_X_X_jar_Location(version),
+                        client.getSha1(), client.getSize(), client.getUrl().toString()));
             }
+        }
 
-            MOD_inheritsFrom = local.readJson_inheritsFrom(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(downloadMarker, "inheritsFrom: " + MOD_inheritsFrom);
+        AssetObjectTable assetObjects = local.assetObjects;
+        Path objects = Utils.getMineCraftAssetsObjectsLocation();
+        StringBuilder url = new StringBuilder(Network.minecraftAssetsUrl.length() + 1 + AssetObjectTable.OBJECT_LOCATION_LENGTH)
+                .append(Network.minecraftAssetsUrl).append('/');
+        int locationStart = url.length();
+        for (int i = 0; i < assetObjects.size(); i++) {
+            if (assetObjects.isFirstOccurrence(i)) {
+                url.setLength(locationStart);
+                assetObjects.appendObjectLocation(i, url);
+                String objectUrl = url.toString();
+                files.add(new ExpectedFile(objects.resolve(objectUrl.substring(locationStart)),
+                        objectUrl.substring(locationStart + 3), assetObjects.getSize(i), objectUrl));
+            }
+        }
+        return files;
+    }
 
-            MOD_jar = local.readJson_jar(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(downloadMarker, "jar: " + MOD_jar);
+    private String getJarVersion(@Nullable LauncherPackage launcherPackage, String version) {
+        if (launcherPackage == null || launcherPackage.getJar() == null) {
+            return VersionResolver.getRootVersion(version);
+        }
+        return launcherPackage.getJar();
+    }
 
-            MOD_assets = local.readJson_assets(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(downloadMarker, "assets: " + MOD_assets);
+    private LauncherEventHandler.DownloadingStatus getDownloadingStatus(ExpectedFile file, String version) {
+        if (file.getPath().startsWith(Utils.getMineCraftAssetsObjectsLocation())) {
+            return LauncherEventHandler.DownloadingStatus.ASSETS;
+        } else if (file.getPath().equals(Utils.getMineCraft_Versions_X_X_jar_Location(version))) {
+            return LauncherEventHandler.DownloadingStatus.MINECRAFT;
+        }
+        return LauncherEventHandler.DownloadingStatus.LIBRARIES;
+    }
 
-            MOD_minecraftArguments = local.readJson_minecraftArguments(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(downloadMarker, "minecraftArguments: " + MOD_minecraftArguments);
+    public void downloadMinecraft(String VersionToUse, Boolean ForceDownload) {
+        downloadMinecraft(VersionToUse, getVerificationLevel(), ForceDownload);
+    }
 
-            MOD_mainClass = local.readJson_mainClass(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(downloadMarker, "mainClass: " + MOD_mainClass);
+    /**
+     * Downloads everything needed to start given version
+     *
+     * @param VersionToUse  Version to download
+     * @param level         How thoroughly already installed files are checked before they are skipped
+     * @param ForceDownload Whether to download files again even if they are installed
+     */
+    public void downloadMinecraft(String VersionToUse, VerificationLevel level, Boolean ForceDownload) {
+        Local local = new Local();
+        logger.info(downloadMarker, "Downlaoding: " + VersionToUse);
 
-            MOD_id = local.readJson_id(Utils.getMineCraft_Version_Json(VersionToUse));
-            logger.info(downloadMarker, "id: " + MOD_id);
-        }
+        //add version in launcher_profiles.json
+        local.writeJson_launcher_profiles("_Cracked_" + Utils.nextSessionId() + "_" + VersionToUse, VersionToUse);
 
-        if (MOD_inheritsFrom == null) {
-            logger.info(downloadMarker, "Using: " + VersionToUse);
+        VersionManifest versionManifest = getVersionManifest();
 
+        //modded versions are resolved together with the versions they inherit from, VersionToUse becomes the vanilla base
+        String versionId = VersionToUse;
+        if (versionManifest != null && versionManifest.contains(VersionToUse)) {
+            logger.info(runMarker, "Vanilla Minecraft found!");
         } else {
-            VersionToUse = MOD_inheritsFrom;
-            logger.info(downloadMarker, "Using: " + VersionToUse);
-
+            logger.info(runMarker, "Modded Minecraft found!");
+            VersionToUse = VersionResolver.getRootVersion(versionId);
+            logger.info(downloadMarker, "inheritsFrom: " + VersionToUse);
         }
+        logger.info(downloadMarker, "Using: " + VersionToUse);
 
-        //incase the url is empty.. we have to assume that the user has old path system.
         eventHandler.onDownload(LauncherEventHandler.DownloadingStatus.LAUNCHER_META);
-        for (int i = 0; i < local.version_manifest_versions_id.size(); i++) {
-            logger.info(downloadMarker, "ID: " + local.version_manifest_versions_id.get(i));
-            logger.info(downloadMarker, "TYPE: " + local.version_manifest_versions_type.get(i));
-            logger.info(downloadMarker, "URL: " + local.version_manifest_versions_url.get(i));
-        }
 
         //download 1.7.10.json_libs
         try {
-            for (int i = 0; i < local.version_manifest_versions_id.size(); i++) {
-                if (local.version_manifest_versions_id.get(i).equals(VersionToUse)) {
-                    Network.downloadVersionJson(local.version_manifest_versions_url.get(i), local.version_manifest_versions_id.get(i));
-                    break;
-                } else {
-                    //do nothing...
-                }
+            //incase the version isn't in the manifest.. we have to assume that the user has old path system.
+            VersionManifest.VersionInfo versionInfo = versionManifest != null ? versionManifest.getVersion(VersionToUse) : null;
+            if (versionInfo != null) {
+                logger.debug(downloadMarker, "ID: " + versionInfo.getId());
+                logger.debug(downloadMarker, "TYPE: " + versionInfo.getType());
+                logger.debug(downloadMarker, "URL: " + versionInfo.getUrl());
+                Network.downloadVersionJson(versionInfo.getUrl().toString(), versionInfo.getId(), versionInfo.getSha1());
             }
 
         } catch (Exception e) {
@@ -712,92 +920,110 @@ public class LauncherAPI {
         local.generateVersionJsonPathList(Utils.getMineCraftVersionsLocation());
         local.generateVersionList(Utils.getMineCraftVersionsLocation());
 
-        try {
-            local.readJson_libraries_downloads_artifact_url(Utils.getMineCraft_Version_Json(VersionToUse));
-
-        } catch (Exception ex) {
-            logger.error("Exception" + ex);
-
+        //everything below reads from this one resolved version
+        LauncherPackage launcherPackage = VersionResolver.resolve(versionId);
+        if (launcherPackage == null) {
+            logger.error(downloadMarker, "Unable to read version json of {}", versionId);
+            return;
         }
-        try {
-            local.readJson_libraries_downloads_artifact_path(Utils.getMineCraft_Version_Json(VersionToUse));
-
-        } catch (Exception ex) {
-            logger.error("Exception" + ex);
-
-        }
-        try {
-            local.readJson_libraries_name(Utils.getMineCraft_Version_Json(VersionToUse));
-
-        } catch (Exception ex) {
-            logger.error("Exception" + ex);
-
+        local.readJson_libraries(launcherPackage, this);
+
+        //the asset index has to be present before we know which objects to queue
+        LauncherPackage.AssetIndexInfo assetIndex = launcherPackage.getAssetIndex();
+        if (assetIndex != null) {
+            logger.info(runMarker, "{}", assetIndex.getUrl());
+            logger.info(runMarker, assetIndex.getId());
+            Network.downloadLaunchermeta(assetIndex.getUrl().toString(), assetIndex.getId(), ForceDownload);
+
+            Path assetIndexJson = Utils.getMineCraftAssetsIndexes_X_json(assetIndex.getId());
+            logger.info(runMarker, "{}", assetIndexJson);
+            local.readJson_objects(assetIndexJson);
+        } else {
+            logger.error(downloadMarker, "Unable to get assetIndex of {}", VersionToUse);
         }
-        ///************************************************************
-        eventHandler.onDownload(LauncherEventHandler.DownloadingStatus.LIBRARIES);
-        for (int i = 0; i < local.version_url_list.size(); i++) {
-            logger.info(downloadMarker, "Downloading: " + local.version_url_list.get(i));
-            try {
-                Network.downloadLibraries(local.version_url_list.get(i), local.version_path_list.get(i), ForceDownload);
-
-            } catch (Exception ex) {
-                logger.error("Due to: " + ex + " " + local.generateLibrariesPath(local.version_name_list.get(i)));
-                local.version_path_list.add(local.generateLibrariesPath(local.version_name_list.get(i)));
-                Network.downloadLibraries(local.version_url_list.get(i), local.generateLibrariesPath(local.version_name_list.get(i)), ForceDownload);
 
+        logger.info(downloadMarker, "Getting NATIVES");
+        local.readJson_libraries_natives(launcherPackage, this);
+
+        //everything below is independent, so queue it all and let the scheduler keep the connections busy
+        List<DownloadScheduler.Failure> failures;
+        Path nativesDirectory = Utils.getMineCraft_Versions_X_Natives_Location(VersionToUse);
+        Map<String, List<String>> nativeJars = new LinkedHashMap<>();
+        Map<String, List<String>> extractedNatives = new ConcurrentHashMap<>();
+        try (DownloadScheduler scheduler = new DownloadScheduler(getDownloadThreads(), getDownloadThreadsPerHost(), eventHandler)) {
+            //the same file must never be written by two downloads at once
+            Set<String> queued = new HashSet<>();
+
+            eventHandler.onDownload(LauncherEventHandler.DownloadingStatus.LIBRARIES);
+            for (Local.LibraryFile library : local.library_files) {
+                if (!queued.add(library.getPath())) {
+                    continue;
+                }
+                logger.info(downloadMarker, "Downloading: " + library.getUrl());
+                scheduler.submit(LauncherEventHandler.DownloadingStatus.LIBRARIES, library.getUrl(), () -> Network.downloadLibraries(library.getUrl(),
+                        library.getPath(), library.getSha1(), library.getSize(), level, ForceDownload));
             }
-        }
-
-        //this may need to be edited!*************//
-        logger.info(runMarker, local.readJson_assetIndex_url(Utils.getMineCraft_Version_Json(VersionToUse)));
-        logger.info(runMarker, local.readJson_assetIndex_id(Utils.getMineCraft_Version_Json(VersionToUse)));
-        //get assets index id!
-        Network.downloadLaunchermeta(local.readJson_assetIndex_url(Utils.getMineCraft_Version_Json(VersionToUse)), local.readJson_assetIndex_id(Utils.getMineCraft_Version_Json(VersionToUse)), ForceDownload);
-
-        logger.info(runMarker, "{}", Utils.getMineCraftAssetsIndexes_X_json(VersionToUse));
 
-        local.readJson_objects_KEY(Utils.getMineCraftAssetsIndexes_X_json(local.readJson_assetIndex_id(Utils.getMineCraft_Version_Json(VersionToUse))));
-        local.readJson_objects_KEY_hash(Utils.getMineCraftAssetsIndexes_X_json(local.readJson_assetIndex_id(Utils.getMineCraft_Version_Json(VersionToUse))));
+            eventHandler.onDownload(LauncherEventHandler.DownloadingStatus.ASSETS);
+            AssetObjectTable assetObjects = local.assetObjects;
+            StringBuilder url = new StringBuilder(Network.minecraftAssetsUrl.length() + 1 + AssetObjectTable.OBJECT_LOCATION_LENGTH)
+                    .append(Network.minecraftAssetsUrl).append('/');
+            int locationStart = url.length();
+            for (int i = 0; i < assetObjects.size(); i++) {
+                logger.debug(downloadMarker, "KEY: {}", assetObjects.getName(i));
+                if (!assetObjects.isFirstOccurrence(i)) {
+                    continue;
+                }
+                url.setLength(locationStart);
+                assetObjects.appendObjectLocation(i, url);
+                String objectUrl = url.toString();
+                long size = assetObjects.getSize(i);
+                scheduler.submit(LauncherEventHandler.DownloadingStatus.ASSETS, objectUrl,
+                        () -> Network.downloadAssetsObjects(objectUrl, objectUrl.substring(locationStart), size, level));
+            }
 
-        eventHandler.onDownload(LauncherEventHandler.DownloadingStatus.ASSETS);
-        for (int i = 0; i < local.objects_hash.size(); i++) {
-            logger.info(downloadMarker, "HASH: " + local.objects_hash.get(i));
-            logger.info(downloadMarker, "FOLDER: " + local.objects_hash.get(i).substring(0, 2));
-            logger.info(downloadMarker, "KEY: " + local.objects_KEY.get(i));
+            eventHandler.onDownload(LauncherEventHandler.DownloadingStatus.MINECRAFT);
+            String jarVersion = getJarVersion(launcherPackage, versionId);
+            Downloadable client = launcherPackage.getDownloads() != null ? launcherPackage.getDownloads().get("client") : null;
+            if (client != null) {
+                logger.info(downloadMarker, "DOWNLOADING MINECRAFT JAR " + jarVersion);
+                scheduler.submit(LauncherEventHandler.DownloadingStatus.MINECRAFT, client.getUrl().toString(),
+                        () -> Network.downloadMinecraftJar(jarVersion, client, level, ForceDownload));
+            } else {
+                logger.warn(downloadMarker, "No client download found for {}", VersionToUse);
+            }
 
-            logger.info(downloadMarker, "DOWNLOADING..." + "HASH: " + local.objects_hash.get(i));
-            Network.downloadAssetsObjects(local.objects_hash.get(i).substring(0, 2), local.objects_hash.get(i));
-            Utils.copyToVirtual(local.objects_hash.get(i).substring(0, 2), local.objects_hash.get(i), local.objects_KEY.get(i));
-            //generate virtual folder as well.
+            //natives are unpacked as they download
+            for (Local.LibraryFile nativeJar : local.native_files) {
+                if (!queued.add(nativeJar.getPath())) {
+                    continue;
+                }
+                nativeJars.put(nativeJar.getPath(), nativeJar.getExclude());
+                logger.info(downloadMarker, "NATIVE URL: " + nativeJar.getUrl());
+                scheduler.submit(LauncherEventHandler.DownloadingStatus.NATIVES, nativeJar.getUrl(), () -> extractedNatives.put(nativeJar.getPath(),
+                        Network.downloadNatives(nativeJar.getUrl(), nativeJar.getPath(), nativeJar.getSha1(), nativeJar.getSize(), level, ForceDownload,
+                                nativesDirectory, nativeJar.getExclude())));
+            }
 
+            failures = scheduler.awaitCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn(downloadMarker, "Download interrupted");
+            return;
         }
 
-        eventHandler.onDownload(LauncherEventHandler.DownloadingStatus.MINECRAFT);
-        logger.info(downloadMarker, "DOWNLOADING MINECRAFT JAR " + VersionToUse);
-        if (MOD_jar == null) {
-            Network.downloadMinecraftJar(VersionToUse, ForceDownload);
-
-        } else {
-            Network.downloadMinecraftJar(MOD_jar, ForceDownload);
-
+        if (!failures.isEmpty()) {
+            logger.error(downloadMarker, "{} downloads failed", failures.size());
         }
+        //lets the next launch skip extracting natives
+        NativesExtractor.stampExtracted(nativesDirectory, nativeJars, extractedNatives);
+        Utils.getArtifactLedger().save();
 
-        //would have tp edit this line as we also need natives paths!
-        eventHandler.onDownload(LauncherEventHandler.DownloadingStatus.NATIVES);
-        logger.info(downloadMarker, "Getting NATIVES URL");
-        local.readJson_libraries_downloads_classifiers_natives_X(Utils.getMineCraft_Versions_X_X_json(VersionToUse));
-        logger.info(downloadMarker, "Getting NATIVES PATH");
-        local.readJson_libraries_downloads_classifiers_natives_Y(Utils.getMineCraft_Versions_X_X_json(VersionToUse));
-
-        for (int i = 0; i < local.version_url_list_natives.size(); i++) {
-            logger.info(downloadMarker, "NATIVE URL: " + local.version_url_list_natives.get(i));
-            Network.downloadLibraries(local.version_url_list_natives.get(i), local.version_path_list_natives.get(i), ForceDownload);
-            //extract them here..
-            logger.info(runMarker, "Extracting... {} {}", local.version_url_list_natives.get(i), Utils.getMineCraft_Versions_X_Natives_Location(VersionToUse));
-
-            Utils.jarExtract(Paths.get(local.version_path_list_natives.get(i)), Utils.getMineCraft_Versions_X_Natives_Location(VersionToUse));
-
+        //generate virtual folder as well, only old indexes need one.
+        if (assetIndex != null) {
+            VirtualAssetTree.build(assetIndex.getId(), local.assetObjects);
         }
+
         eventHandler.onDownloadComplete();
         logger.info(downloadMarker, "Download Complete!");
     }
@@ -26,34 +26,37 @@
 
 package me.minidigger.minecraftlauncher.api;
 
+import com.google.gson.JsonParseException;
+import me.minidigger.minecraftlauncher.api.json.LauncherGson;
+import me.minidigger.minecraftlauncher.api.json.launcher.AssetIndex;
+import me.minidigger.minecraftlauncher.api.json.launcher.Downloadable;
+import me.minidigger.minecraftlauncher.api.json.launcher.LauncherPackage;
 import org.apache.commons.io.FileUtils;
-import org.json.simple.JSONArray;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -64,28 +67,20 @@ class Local {
 
     List<String> versions_json_path_list = new ArrayList<>(); //gets the path of all json files
     List<String> versions_list = new ArrayList<>();           //just gets the versions available on the system
-    List<String> version_url_list = new ArrayList<>();        //gets url of all the libraries
-    List<String> HALF_URL_version_url_list = new ArrayList<>();// this is the half url. it needs to be fixed first in order to be used
-
-    List<String> version_path_list = new ArrayList<>();       //%new added... This is for direct paths
     List<String> version_name_list = new ArrayList<>();       //%new added... This is for direct names
 
-    List<String> objects_hash = new ArrayList<>();            //gets objects hash
-    List<String> objects_KEY = new ArrayList<>();             //gets objects keys
+    AssetObjectTable assetObjects = AssetObjectTable.empty(); //gets objects keys, hashes and sizes
 
     List<String> profiles_lastVersionId = new ArrayList<>();   //gets profiles lastVersionId
     List<String> profiles_KEY = new ArrayList<>();             //gets profiles keys
 
-    List<String> version_url_list_natives = new ArrayList<>();    //gets url of all the natives
-    List<String> version_path_list_natives = new ArrayList<>();    //%gets url of all the natives
     List<String> version_name_list_natives = new ArrayList<>(); //EXP CODE!
+    List<LibraryFile> library_files = new ArrayList<>();       //url, path and checksum of every library
+    List<LibraryFile> native_files = new ArrayList<>();        //the same for natives, with the paths not to extract
 
     List<String> libraries_path = new ArrayList<>();          //gets path to all the libraries
     //List natives_path = new ArrayList();            //_NOT NEEDED_ gets path to all the natives
 
-    List<String> version_manifest_versions_id = new ArrayList<>();
-    List<String> version_manifest_versions_type = new ArrayList<>();
-    List<String> version_manifest_versions_url = new ArrayList<>();
 
     public void fixLauncherProfiles() {
         //this is where we will check if file is available or not. 
@@ -199,300 +194,59 @@ class Local {
         }
     }
 
-    public void readJson_versions_id(Path path) {
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object object = readMCJSONFiles.parse(new FileReader(path.toFile()));
-            JSONObject jsonObject = (JSONObject) object;
-            JSONArray versions = (JSONArray) jsonObject.get("versions");
-            for (JSONObject version : (Iterable<JSONObject>) versions) {
-                version_manifest_versions_id.add((String) version.get("id"));
+    public void readJson_libraries(LauncherPackage launcherPackage, LauncherAPI launcherAPI) {
+        for (LauncherPackage.Library library : launcherPackage.getLibraries()) {
+            if (!library.isAllowed(launcherAPI)) {
+                continue;
             }
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse version ids", e);
-        }
-    }
 
-    public void readJson_versions_type(Path path) {
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object object = readMCJSONFiles.parse(new FileReader(path.toFile()));
-            JSONObject jsonObject = (JSONObject) object;
-            JSONArray versions = (JSONArray) jsonObject.get("versions");
-            for (JSONObject version : (Iterable<JSONObject>) versions) {
-                version_manifest_versions_type.add((String) version.get("type"));
+            version_name_list.add(library.getName());
+            LauncherPackage.Library.Downloads downloads = library.getDownloads();
+            if (downloads == null) {
+                //libraries of modded versions only name a maven repository, the path follows from the name
+                String repository = library.getUrl() != null ? library.getUrl() : Network.minecraftLibrariesUrl;
+                String path = generateLibrariesPath(library.getName());
+                String url = repository.replaceAll("/+$", "") + "/" + path;
+                library_files.add(new LibraryFile(url, path, null, Collections.emptyList()));
+            } else if (downloads.getArtifact() != null && downloads.getArtifact().getUrl() != null) {
+                Downloadable artifact = downloads.getArtifact();
+                library_files.add(new LibraryFile(artifact.getUrl().toString(), artifact.getPath(), artifact, Collections.emptyList()));
             }
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse version types", e);
         }
     }
 
-    public void readJson_versions_url(Path path) {
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object object = readMCJSONFiles.parse(new FileReader(path.toFile()));
-            JSONObject jsonObject = (JSONObject) object;
-            JSONArray versions = (JSONArray) jsonObject.get("versions");
-            for (JSONObject version : (Iterable<JSONObject>) versions) {
-                version_manifest_versions_url.add((String) version.get("url"));
+    public void readJson_libraries_natives(LauncherPackage launcherPackage, LauncherAPI launcherAPI) {
+        for (LauncherPackage.Library library : launcherPackage.getLibraries()) {
+            if (!library.isAllowed(launcherAPI)) {
+                continue;
             }
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse version urls", e);
-        }
-    }
 
-    public void readJson_libraries_name(Path path) {
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object object = readMCJSONFiles.parse(new FileReader(path.toFile()));
-            JSONObject jsonObject = (JSONObject) object;
-            JSONArray versions = (JSONArray) jsonObject.get("libraries");
-            for (JSONObject version : (Iterable<JSONObject>) versions) {
-                version_name_list.add((String) version.get("name"));
+            Downloadable natives = library.getNativesDownload(launcherAPI);
+            if (natives == null || natives.getPath() == null) {
+                continue;
             }
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse library names", e);
-        }
-    }
-
-    public void readJson_libraries_downloads_artifact_url(Path path) {
 
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object object = readMCJSONFiles.parse(Files.newBufferedReader(path));
-            JSONObject jsonObject = (JSONObject) object;
-            JSONArray msg = (JSONArray) jsonObject.get("libraries");
-            for (JSONObject aMsg : (Iterable<JSONObject>) msg) {
-                JSONObject downloads = (JSONObject) aMsg.get("downloads");
-                if (downloads.get("artifact") != null) {
-                    JSONObject artifact = (JSONObject) downloads.get("artifact");
-                    if (artifact.get("url") != null) {
-                        String url = (String) artifact.get("url");
-                        version_url_list.add(url);
-                    }
-                }
-            }
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse library download urls", e);
+            LauncherPackage.Library.ExtractGuide extract = library.getExtract();
+            version_name_list_natives.add(library.getName());
+            native_files.add(new LibraryFile(natives.getUrl().toString(), natives.getPath(), natives,
+                    extract != null && extract.getExclude() != null ? extract.getExclude() : Collections.emptyList()));
         }
-
     }
 
-    public void readJson_libraries_downloads_artifact_path(Path path) {
-
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object object = readMCJSONFiles.parse(Files.newBufferedReader(path));
-            JSONObject jsonObject = (JSONObject) object;
-            JSONArray msg = (JSONArray) jsonObject.get("libraries");
-            for (JSONObject aMsg : (Iterable<JSONObject>) msg) {
-                JSONObject downloads = (JSONObject) aMsg.get("downloads");
-                if (downloads.get("artifact") != null) {
-                    JSONObject artifact = (JSONObject) downloads.get("artifact");
-                    if (artifact.get("path") != null) {
-                        String _path = (String) artifact.get("path");
-                        version_path_list.add(_path);
-                    }
-                }
-            }
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse library download paths", e);
-        }
-
-    }
-
-    //edit this function to add more operating systems
-    public void readJson_libraries_downloads_classifiers_natives_X(Path path) {
-
-        try {
-            String natives_OS = null;
-            switch(Utils.getOS()) {
-                case LINUX:
-                    natives_OS = "natives-linux";
-                    break;
-                case WINDOWS:
-                    natives_OS = "natives-windows";
-                    break;
-                case MAC:
-                    natives_OS = "natives-osx";
-                    break;
-            }
-
-            String content = new Scanner(path.toFile()).useDelimiter("\\Z").next();
-            ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
-            try {
-
-                //TODO figure out wtf this script is doing
-                String script_js = "var getJsonLibrariesDownloadsClassifiersNativesX=function(r,s){var a=r,e=JSON.parse(a),n=\"\",t=0;for(i=0;i<500;i++)try{n=n+e.libraries[t].downloads.classifiers[s].url+\"\\n\",t+=1}catch(o){t+=1}return n},getJsonLibrariesDownloadsClassifiersNativesY=function(r,s){var a=r,e=JSON.parse(a),n=\"\",t=0;for(i=0;i<500;i++)try{n=n+e.libraries[t].downloads.classifiers[s].path+\"\\n\",t+=1}catch(o){t+=1}return n},getJsonLibrariesDownloadsClassifiersNativesZ=function(r){var s=r,a=JSON.parse(s),e=\"\",n=0;for(i=0;i<500;i++)try{a.libraries[n].natives?(e=e+a.libraries[n].name+\"\\n\",n+=1):n+=1}catch(t){n+=1}return e};";
-
-                File file = new File("./.script.js");
-                file.createNewFile();
-                FileWriter fw = new FileWriter(file.getAbsoluteFile());
-                BufferedWriter bw = new BufferedWriter(fw);
-                bw.write(script_js);
-                bw.close();
-
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            engine.eval(new FileReader("./.script.js"));
-
-            Invocable invocable = (Invocable) engine;
-
-            Object result = invocable.invokeFunction("getJsonLibrariesDownloadsClassifiersNativesX", content, natives_OS);
-
-            version_url_list_natives.addAll(Arrays.asList(result.toString().split("\n")));
-        } catch (FileNotFoundException | ScriptException | NoSuchMethodException ex) {
-            logger.warn("Failed to parse native library classifiers", ex);
-        }
-    }
-
-    public void readJson_libraries_downloads_classifiers_natives_Y(Path path) {
-
-        try {
-            String natives_OS = null;
-            switch(Utils.getOS()) {
-                case LINUX:
-                    natives_OS = "natives-linux";
-                    break;
-                case WINDOWS:
-                    natives_OS = "natives-windows";
-                    break;
-                case MAC:
-                    natives_OS = "natives-osx";
-                    break;
-            }
-
-            String content = new Scanner(path.toFile()).useDelimiter("\\Z").next();
-            ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
-            try {
-
-                //TODO figure out wtf to do with this script
-                String script_js = "var getJsonLibrariesDownloadsClassifiersNativesX=function(r,s){var a=r,e=JSON.parse(a),n=\"\",t=0;for(i=0;i<500;i++)try{n=n+e.libraries[t].downloads.classifiers[s].url+\"\\n\",t+=1}catch(o){t+=1}return n},getJsonLibrariesDownloadsClassifiersNativesY=function(r,s){var a=r,e=JSON.parse(a),n=\"\",t=0;for(i=0;i<500;i++)try{n=n+e.libraries[t].downloads.classifiers[s].path+\"\\n\",t+=1}catch(o){t+=1}return n},getJsonLibrariesDownloadsClassifiersNativesZ=function(r){var s=r,a=JSON.parse(s),e=\"\",n=0;for(i=0;i<500;i++)try{a.libraries[n].natives?(e=e+a.libraries[n].name+\"\\n\",n+=1):n+=1}catch(t){n+=1}return e};";
-
-                File file = new File("./.script.js");
-                file.createNewFile();
-                FileWriter fw = new FileWriter(file.getAbsoluteFile());
-                BufferedWriter bw = new BufferedWriter(fw);
-                bw.write(script_js);
-                bw.close();
-
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            engine.eval(new FileReader("./.script.js"));
-
-            Invocable invocable = (Invocable) engine;
-
-            Object result = invocable.invokeFunction("getJsonLibrariesDownloadsClassifiersNativesY", content, natives_OS);
-
-            version_path_list_natives.addAll(Arrays.asList(result.toString().split("\n")));
-        } catch (FileNotFoundException | ScriptException | NoSuchMethodException ex) {
-            logger.warn("Failed to parse native library classifiers", ex);
-        }
-    }
-
-    public void readJson_libraries_downloads_classifiers_natives_Z(Path path) {
-
-        try {
-
-            String content = new Scanner(path.toFile()).useDelimiter("\\Z").next();
-            ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
-            try {
-
-                String script_js = "var getJsonLibrariesDownloadsClassifiersNativesX=function(r,s){var a=r,e=JSON.parse(a),n=\"\",t=0;for(i=0;i<500;i++)try{n=n+e.libraries[t].downloads.classifiers[s].url+\"\\n\",t+=1}catch(o){t+=1}return n},getJsonLibrariesDownloadsClassifiersNativesY=function(r,s){var a=r,e=JSON.parse(a),n=\"\",t=0;for(i=0;i<500;i++)try{n=n+e.libraries[t].downloads.classifiers[s].path+\"\\n\",t+=1}catch(o){t+=1}return n},getJsonLibrariesDownloadsClassifiersNativesZ=function(r){var s=r,a=JSON.parse(s),e=\"\",n=0;for(i=0;i<500;i++)try{a.libraries[n].natives?(e=e+a.libraries[n].name+\"\\n\",n+=1):n+=1}catch(t){n+=1}return e};";
-
-                File file = new File("./.script.js");
-                file.createNewFile();
-                FileWriter fw = new FileWriter(file.getAbsoluteFile());
-                BufferedWriter bw = new BufferedWriter(fw);
-                bw.write(script_js);
-                bw.close();
-
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            engine.eval(new FileReader("./.script.js"));
-
-            Invocable invocable = (Invocable) engine;
-
-            Object result = invocable.invokeFunction("getJsonLibrariesDownloadsClassifiersNativesZ", content);
-
-            version_name_list_natives.addAll(Arrays.asList(result.toString().split("\n")));
-        } catch (FileNotFoundException | ScriptException | NoSuchMethodException ex) {
-            logger.warn("Failed to parse native library classifiers", ex);
-        }
-    }
-
-    public void readJson_objects_KEY(Path path) {
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object jsonfile;
-
-            jsonfile = readMCJSONFiles.parse(Files.newBufferedReader(path));
-
-            JSONObject jsonObject = (JSONObject) jsonfile;
-            JSONObject objects = (JSONObject) jsonObject.get("objects");
-
-            Set fileCheckObjects = objects.keySet();
-            for (Object fileCheckObject : fileCheckObjects) {
-                String fileName = (String) fileCheckObject;
-                objects_KEY.add(fileName);
-            }
-        } catch (IOException | ParseException ex) {
+    public AssetIndex readJson_objects(Path path) {
+        AssetIndex assetIndex;
+        try (Reader reader = Files.newBufferedReader(path)) {
+            assetIndex = LauncherGson.getGson().fromJson(reader, AssetIndex.class);
+        } catch (IOException | JsonParseException ex) {
             logger.warn("Failed to parse JSON", ex);
+            return null;
         }
-
-    }
-
-    public void readJson_objects_KEY_hash(Path path) {
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object jsonfile;
-
-            jsonfile = readMCJSONFiles.parse(Files.newBufferedReader(path));
-
-            JSONObject jsonObject = (JSONObject) jsonfile;
-            JSONObject objects = (JSONObject) jsonObject.get("objects");
-
-            Set fileCheckObjects = objects.keySet();
-            for (Object fileCheckObject : fileCheckObjects) {
-                String fileName = (String) fileCheckObject;
-
-                JSONObject fileNameObject = (JSONObject) objects.get(fileName);
-                String fileHash = (String) fileNameObject.get("hash");
-                objects_hash.add(fileHash);
-            }
-        } catch (IOException | ParseException ex) {
-            logger.warn("Failed to parse JSON", ex);
+        if (assetIndex == null) {
+            return null;
         }
 
-    }
-
-    public String readJson_assetIndex_url(Path path) {
-        try {
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(Files.newBufferedReader(path));
-            JSONObject structure = (JSONObject) jsonObject.get("assetIndex");
-            return (String) (structure.get("url"));
-
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
-        }
-        return "N/A";
-    }
-
-    public String readJson_assetIndex_id(Path path) {
-        try {
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(Files.newBufferedReader(path));
-            JSONObject structure = (JSONObject) jsonObject.get("assetIndex");
-            return (String) (structure.get("id"));
-
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
-        }
-        return "N/A";
+        assetObjects = AssetObjectTable.of(assetIndex);
+        return assetIndex;
     }
 
     public void generateVersionJsonPathList(Path path) {
@@ -533,46 +287,6 @@ class Local {
         }
     }
 
-    public String readJson_minecraftArguments_v2(Path path) {
-        try {
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(Files.newBufferedReader(path));
-            JSONObject jsonArgs = (JSONObject) jsonObject.get("arguments");
-            String args = jsonArgs.get("game").toString();
-            args = args.replaceAll("\\[", "").replaceAll("\\]", "").replaceAll(",", "").replaceAll("\"\"", " ").replaceAll("\"", "");
-            String[] argsF = args.split("\\{rules");
-            return (argsF[0]);
-
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
-        }
-        return "N/A";
-    }
-
-    public String readJson_minecraftArguments(Path path) {
-        try {
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(Files.newBufferedReader(path));
-            return (String) (jsonObject.get("minecraftArguments"));
-
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
-        }
-        return "N/A";
-    }
-
-    public String readJson_assets(Path path) {
-        try {
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(Files.newBufferedReader(path));
-            return (String) (jsonObject.get("assets"));
-
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
-        }
-        return "N/A";
-    }
-
     public String readJson_id(Path path) {
         try {
             JSONParser jsonParser = new JSONParser();
@@ -585,72 +299,51 @@ class Local {
         return "N/A";
     }
 
-    public String readJson_mainClass(Path path) {
-        try {
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(Files.newBufferedReader(path));
-            return (String) (jsonObject.get("mainClass"));
-
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
-        }
-        return "N/A";
-    }
-
-    public String[] generateMinecraftArguments(String auth_player_name, String version_name, Path game_directory, Path assets_root, String assets_index_name, String auth_uuid, String auth_access_token, String user_properties, String user_type, String version_type, Path game_assets, String auth_session) {
-
-        Local local = new Local();
-        String cmdArgs = local.readJson_minecraftArguments(Utils.getMineCraft_Versions_X_X_json(version_name));
+    public List<String> generateMinecraftArgumentTemplate(LauncherPackage launcherPackage, LauncherAPI launcherAPI) {
+        List<String> cmdArgs = launcherPackage.getMinecraftArguments();
         if (cmdArgs == null) {
             //run v2
-            cmdArgs = local.readJson_minecraftArguments_v2(Utils.getMineCraft_Versions_X_X_json(version_name));
+            cmdArgs = new ArrayList<>();
+            LauncherPackage.Arguments arguments = launcherPackage.getArguments();
+            if (arguments != null) {
+                for (LauncherPackage.Argument argument : arguments.getGame()) {
+                    if (argument.isAllowed(launcherAPI)) {
+                        cmdArgs.addAll(argument.getValue());
+                    }
+                }
+            }
         }
 
-        //the arguments can start with -- or $
-        cmdArgs = cmdArgs.replaceAll(" +", " ");
-        //the above will change it to single space.
-        //split it to String and move it to ArrayList
-        String[] tempArgsSplit = cmdArgs.split(" ");
-        for (int i = 0; i < tempArgsSplit.length; i++) {
-            if (tempArgsSplit[i].equals("${auth_player_name}")) {
-                tempArgsSplit[i] = auth_player_name;
-            }
-            if (tempArgsSplit[i].equals("${version_name}")) {
-                tempArgsSplit[i] = version_name;
-            }
-            if (tempArgsSplit[i].equals("${game_directory}")) {
-                tempArgsSplit[i] = game_directory.toString();
-            }
-            if (tempArgsSplit[i].equals("${assets_root}")) {
-                tempArgsSplit[i] = assets_root.toString();
-            }
-            if (tempArgsSplit[i].equals("${assets_index_name}")) {
-                tempArgsSplit[i] = assets_index_name;
-            }
-            if (tempArgsSplit[i].equals("${auth_uuid}")) {
-                tempArgsSplit[i] = auth_uuid;
-            }
-            if (tempArgsSplit[i].equals("${auth_access_token}")) {
-                tempArgsSplit[i] = auth_access_token;
-            }
-            if (tempArgsSplit[i].equals("${user_properties}")) {
-                tempArgsSplit[i] = user_properties;
-            }
-            if (tempArgsSplit[i].equals("${user_type}")) {
-                tempArgsSplit[i] = user_type;
-            }
-            if (tempArgsSplit[i].equals("${version_type}")) {
-                tempArgsSplit[i] = version_type;
-            }
-            if (tempArgsSplit[i].equals("${game_assets}")) {
-                tempArgsSplit[i] = game_assets.toString();
-            }
-            if (tempArgsSplit[i].equals("${auth_session}")) {
-                tempArgsSplit[i] = auth_session;
+        List<String> template = new ArrayList<>(cmdArgs.size());
+        for (String argument : cmdArgs) {
+            if (!argument.isEmpty()) {
+                template.add(argument);
             }
         }
+        return template;
+    }
+
+    public String[] generateMinecraftArguments(List<String> template, String auth_player_name, String version_name, Path game_directory, Path assets_root, String assets_index_name, String auth_uuid, String auth_access_token, String user_properties, String user_type, String version_type, Path game_assets, String auth_session) {
+        Map<String, String> values = new HashMap<>();
+        values.put("${auth_player_name}", auth_player_name);
+        values.put("${version_name}", version_name);
+        values.put("${game_directory}", game_directory.toString());
+        values.put("${assets_root}", assets_root.toString());
+        values.put("${assets_index_name}", assets_index_name);
+        values.put("${auth_uuid}", auth_uuid);
+        values.put("${auth_access_token}", auth_access_token);
+        values.put("${user_properties}", user_properties);
+        values.put("${user_type}", user_type);
+        values.put("${version_type}", version_type);
+        values.put("${game_assets}", game_assets.toString());
+        values.put("${auth_session}", auth_session);
 
-        return tempArgsSplit;
+        //the arguments can start with -- or $
+        String[] arguments = new String[template.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = values.getOrDefault(template.get(i), template.get(i));
+        }
+        return arguments;
     }
 
     public String generateLibrariesArguments() {
@@ -747,58 +440,57 @@ class Local {
         return "N/A";
     }
 
-    public Boolean checkIfVanillaMC(String version) {
-        for (String aVersion_manifest_versions_id : version_manifest_versions_id) {
-            if (aVersion_manifest_versions_id.equals(version)) {
-                return true;
-            }
-        }
-        //if nothing.. return false
-        return false;
-    }
+    /**
+     * A library or native jar of a version
+     */
+    static class LibraryFile {
+        private final String url;
+        private final String path;
+        @Nullable
+        private final Downloadable download;
+        private final List<String> exclude;
 
-    public void MOD_readJson_libraries_name_PLUS_url(Path path) {
-        JSONParser readMCJSONFiles = new JSONParser();
-        try {
-            Object object = readMCJSONFiles.parse(Files.newBufferedReader(path));
-            JSONObject jsonObject = (JSONObject) object;
-            JSONArray versions = (JSONArray) jsonObject.get("libraries");
-            for (JSONObject version : (Iterable<JSONObject>) versions) {
-                version_name_list.add((String) version.get("name"));
-                if (version.get("url") == null) {
-                    logger.error("Can't resolve url. Attempting to fix!");
-                    HALF_URL_version_url_list.add(Network.minecraftLibrariesUrl);
-                } else {
-                    HALF_URL_version_url_list.add((String) version.get("url"));
+        private LibraryFile(String url, String path, @Nullable Downloadable download, List<String> exclude) {
+            this.url = url;
+            this.path = path;
+            this.download = download;
+            this.exclude = exclude;
+        }
 
-                }
-            }
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
+        @NonNull
+        String getUrl() {
+            return url;
         }
-    }
 
-    public String readJson_inheritsFrom(Path path) {
-        try {
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(Files.newBufferedReader(path));
-            return (String) (jsonObject.get("inheritsFrom"));
+        /**
+         * @return Path relative to the libraries folder
+         */
+        @NonNull
+        String getPath() {
+            return path;
+        }
 
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
+        /**
+         * @return SHA-1 of the file, {@code null} if the version json doesn't tell
+         */
+        @Nullable
+        String getSha1() {
+            return download != null ? download.getSha1() : null;
         }
-        return "N/A";
-    }
 
-    public String readJson_jar(Path path) {
-        try {
-            JSONParser jsonParser = new JSONParser();
-            JSONObject jsonObject = (JSONObject) jsonParser.parse(Files.newBufferedReader(path));
-            return (String) (jsonObject.get("jar"));
+        /**
+         * @return Size of the file, 0 if the version json doesn't tell
+         */
+        long getSize() {
+            return download != null ? download.getSize() : 0;
+        }
 
-        } catch (IOException | ParseException e) {
-            logger.warn("Failed to parse JSON", e);
+        /**
+         * @return Prefixes of entries not to extract, only natives have any
+         */
+        @NonNull
+        List<String> getExclude() {
+            return exclude;
         }
-        return "N/A";
     }
 }
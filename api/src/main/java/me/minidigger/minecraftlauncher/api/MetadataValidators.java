@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import me.minidigger.minecraftlauncher.api.verify.AtomicFiles;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Properties;
+
+/**
+ * HTTP validators (ETag and Last-Modified) of a downloaded metadata file, and when the server was last asked
+ * about it. They are kept in the launcher cache together with size and modification time of the file they
+ * belong to, and are only used while the file is still exactly the one they were received with
+ */
+class MetadataValidators {
+    private final static Logger logger = LoggerFactory.getLogger(MetadataValidators.class);
+
+    @Nullable
+    private final String etag;
+    @Nullable
+    private final String lastModified;
+    private final long checked;
+
+    private MetadataValidators(@Nullable String etag, @Nullable String lastModified, long checked) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.checked = checked;
+    }
+
+    /**
+     * Loads the validators stored for given file
+     *
+     * @param file Downloaded metadata file
+     * @return Validators, or {@code null} if there are none or the file was changed since they were stored
+     */
+    @Nullable
+    public static MetadataValidators load(@NonNull Path file) {
+        BasicFileAttributes attributes = stat(file);
+        if (attributes == null) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(Utils.getMetadataValidatorsLocation(file))) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Failed to read validators of {}", file, e);
+            return null;
+        }
+
+        try {
+            if (Long.parseLong(properties.getProperty("size", "-1")) != attributes.size()
+                    || Long.parseLong(properties.getProperty("modified", "-1")) != attributes.lastModifiedTime().toMillis()) {
+                return null;
+            }
+            long checked = Long.parseLong(properties.getProperty("checked", "0"));
+            return new MetadataValidators(properties.getProperty("etag"), properties.getProperty("lastModified"), checked);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the validators of a response whose body was just written to given file
+     *
+     * @param file     File the response body was written to
+     * @param response Response
+     */
+    public static void store(@NonNull Path file, @NonNull Response response) {
+        write(file, new MetadataValidators(response.header("ETag"), response.header("Last-Modified"), System.currentTimeMillis()));
+    }
+
+    /**
+     * Records that the server just confirmed given file to be up to date
+     *
+     * @param file File the server answered 304 Not Modified for
+     */
+    public static void touch(@NonNull Path file) {
+        MetadataValidators validators = load(file);
+        if (validators != null) {
+            write(file, new MetadataValidators(validators.etag, validators.lastModified, System.currentTimeMillis()));
+        }
+    }
+
+    private static void write(Path file, MetadataValidators validators) {
+        Path location = Utils.getMetadataValidatorsLocation(file);
+        try {
+            BasicFileAttributes attributes = stat(file);
+            if (attributes == null) {
+                Files.deleteIfExists(location);
+                return;
+            }
+
+            Properties properties = new Properties();
+            if (validators.etag != null) {
+                properties.setProperty("etag", validators.etag);
+            }
+            if (validators.lastModified != null) {
+                properties.setProperty("lastModified", validators.lastModified);
+            }
+            properties.setProperty("checked", Long.toString(validators.checked));
+            properties.setProperty("size", Long.toString(attributes.size()));
+            properties.setProperty("modified", Long.toString(attributes.lastModifiedTime().toMillis()));
+
+            Files.createDirectories(location.getParent());
+            Path temporary = location.resolveSibling(location.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                properties.store(out, null);
+            }
+            AtomicFiles.move(temporary, location);
+        } catch (IOException e) {
+            logger.warn("Failed to store validators of {}", file, e);
+        }
+    }
+
+    /**
+     * Makes given request conditional, so the server can answer with 304 Not Modified
+     *
+     * @param request Request for the file these validators belong to
+     */
+    public void apply(Request.@NonNull Builder request) {
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+    }
+
+    /**
+     * Gets how long ago the server was last asked about the file
+     *
+     * @return Age in milliseconds
+     */
+    public long getAge() {
+        return System.currentTimeMillis() - checked;
+    }
+
+    @Nullable
+    private static BasicFileAttributes stat(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
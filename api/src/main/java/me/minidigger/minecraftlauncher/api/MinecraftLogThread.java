@@ -33,30 +33,127 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class MinecraftLogThread extends Thread {
 
     private final static Logger logger = LoggerFactory.getLogger(MinecraftLogThread.class);
 
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /*
+     * Events printed by the XMLLayout of log4j, which the logging configurations of the version jsons use
+     */
+    private final static String EVENT_START = "<log4j:Event";
+    private final static String EVENT_END = "</log4j:Event>";
+    private final static int MAX_EVENT_LINES = 1000;
+    private final static Pattern ATTRIBUTE = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+    private final static Pattern CDATA = Pattern.compile("<log4j:(Message|Throwable)><!\\[CDATA\\[(.*?)]]></log4j:\\1>", Pattern.DOTALL);
+
     private InputStream inputStream;
+    private final boolean error;
+    private final Consumer<GameLog.Line> lineListener;
 
     public MinecraftLogThread(InputStream inputStream) {
+        this(inputStream, "MinecraftLogThread", false, line -> logger.info("MINECRAFT: {}", line));
+    }
+
+    /**
+     * @param inputStream  Output stream of the game process to read, the game has to print UTF-8
+     * @param name         Name of the thread
+     * @param error        Whether this is the error stream of the game
+     * @param lineListener Invoked with every line, or every event if the game logs XML
+     */
+    public MinecraftLogThread(InputStream inputStream, String name, boolean error, Consumer<GameLog.Line> lineListener) {
         this.inputStream = inputStream;
-        setName("MinecraftLogThread");
+        this.error = error;
+        this.lineListener = lineListener;
+        setName(name);
         start();
     }
 
     @Override
     public void run() {
         logger.info("Starting to log output...");
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            List<String> event = new ArrayList<>();
             String buffer;
             while ((buffer = reader.readLine()) != null) {
-                logger.info("MINECRAFT: " + buffer);
+                if (event.isEmpty() && !buffer.startsWith(EVENT_START)) {
+                    lineListener.accept(new GameLog.Line(System.currentTimeMillis(), null, null, buffer, error));
+                    continue;
+                }
+
+                event.add(buffer);
+                if (buffer.contains(EVENT_END)) {
+                    lineListener.accept(parseEvent(event));
+                    event.clear();
+                } else if (event.size() >= MAX_EVENT_LINES) {
+                    flush(event);
+                }
             }
+            flush(event);
         } catch (IOException ex) {
             ex.printStackTrace();
         }
         logger.info("Shutting down");
     }
+
+    /*
+     * Passes on the lines of an event which never ended as they are
+     */
+    private void flush(List<String> event) {
+        long now = System.currentTimeMillis();
+        for (String line : event) {
+            lineListener.accept(new GameLog.Line(now, null, null, line, error));
+        }
+        event.clear();
+    }
+
+    private GameLog.Line parseEvent(List<String> event) {
+        String start = event.get(0);
+        long timestamp = System.currentTimeMillis();
+        String level = "INFO";
+        String thread = "";
+        Matcher attributes = ATTRIBUTE.matcher(start.substring(0, Math.max(start.indexOf('>'), 0)));
+        while (attributes.find()) {
+            String value = unescape(attributes.group(2));
+            switch (attributes.group(1)) {
+                case "timestamp":
+                    try {
+                        timestamp = Long.parseLong(value);
+                    } catch (NumberFormatException ignored) {
+                    }
+                    break;
+                case "level":
+                    level = value;
+                    break;
+                case "thread":
+                    thread = value;
+                    break;
+            }
+        }
+
+        StringBuilder message = new StringBuilder();
+        Matcher content = CDATA.matcher(String.join("\n", event));
+        while (content.find()) {
+            if (message.length() > 0) {
+                message.append('\n');
+            }
+            message.append(content.group(2));
+        }
+        return new GameLog.Line(timestamp, level, thread, message.toString(), error);
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'").replace("&amp;", "&");
+    }
 }
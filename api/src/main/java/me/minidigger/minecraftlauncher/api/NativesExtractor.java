@@ -0,0 +1,535 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import me.minidigger.minecraftlauncher.api.verify.AtomicFiles;
+import me.minidigger.minecraftlauncher.api.verify.VerificationEngine;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Unpacks native jars into the natives directory of a version. Every jar is unpacked only once, into a cache
+ * directory named after its SHA-1 which all versions share, and the natives directories of versions are made of
+ * hard links into it. The jar is read as a stream, so it can be unpacked while it is being downloaded. Entries go to
+ * a temporary directory first, which only becomes the cache directory once the caller commits it, i.e. after the
+ * jar turned out to be intact.
+ * <p>
+ * A stamp file in the natives directory lists which jars, identified by SHA-1, were unpacked into it with which
+ * excludes and what came out of them. As long as it matches, launching doesn't open a single jar
+ */
+class NativesExtractor {
+    private final static Logger logger = LoggerFactory.getLogger(NativesExtractor.class);
+    private final static String STAMP_FILE = ".natives-stamp";
+    private final static String ENTRIES_FILE = ".entries";
+    private final static int MAGIC = 0x4D4C4E53;
+    private final static int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final List<String> exclude;
+    private volatile List<String> extracted = Collections.emptyList();
+
+    /**
+     * @param directory Natives directory to unpack into
+     * @param exclude   Prefixes of entries which aren't unpacked
+     */
+    NativesExtractor(@NonNull Path directory, @NonNull List<String> exclude) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.exclude = exclude;
+    }
+
+    /**
+     * Unpacks all given native jars into a natives directory, several at once, unless the stamp file shows that
+     * exactly these jars were unpacked already
+     *
+     * @param directory Natives directory
+     * @param jars      Paths of native jars relative to the libraries folder, mapped to their excludes
+     */
+    public static void extractAll(@NonNull Path directory, @NonNull Map<String, List<String>> jars) {
+        Map<String, String> sha1s = getSha1s(jars.keySet());
+        if (sha1s == null) {
+            return;
+        }
+
+        List<StampEntry> stamp = readStamp(directory);
+        if (stamp != null && isUpToDate(directory, stamp, jars, sha1s)) {
+            logger.debug("Natives in {} are up to date", directory);
+            return;
+        }
+
+        Map<String, List<String>> extracted = new ConcurrentHashMap<>();
+        jars.entrySet().parallelStream().forEach(jar -> {
+            try {
+                NativesExtractor extractor = new NativesExtractor(directory, jar.getValue());
+                extracted.put(jar.getKey(), extractor.extract(Utils.getMineCraftLibrariesLocation().resolve(jar.getKey()), sha1s.get(jar.getKey())));
+            } catch (IOException e) {
+                logger.warn("Failed to extract natives from {}", jar.getKey(), e);
+            }
+        });
+        if (extracted.size() == jars.size()) {
+            writeStamp(directory, jars, sha1s, extracted);
+        }
+    }
+
+    /**
+     * Writes the stamp file for natives which were unpacked while they downloaded
+     *
+     * @param directory Natives directory
+     * @param jars      Paths of native jars relative to the libraries folder, mapped to their excludes
+     * @param extracted Same paths mapped to the entries they contained
+     */
+    public static void stampExtracted(@NonNull Path directory, @NonNull Map<String, List<String>> jars, @NonNull Map<String, List<String>> extracted) {
+        Map<String, String> sha1s = getSha1s(jars.keySet());
+        if (sha1s != null && extracted.keySet().containsAll(jars.keySet())) {
+            writeStamp(directory, jars, sha1s, extracted);
+        }
+    }
+
+    /**
+     * Unpacks a native jar on disk, or only links its entries if a jar with the same SHA-1 was unpacked before
+     *
+     * @param jar  Native jar
+     * @param sha1 SHA-1 of the jar
+     * @return Names of the entries it contained, excluded ones left out
+     * @throws IOException If the jar couldn't be read or an entry couldn't be written
+     */
+    @NonNull
+    public List<String> extract(@NonNull Path jar, @NonNull String sha1) throws IOException {
+        if (!isCached(sha1)) {
+            try (InputStream in = Files.newInputStream(jar)) {
+                stage(in).commit(sha1);
+            }
+        }
+        return link(sha1);
+    }
+
+    /**
+     * Unpacks a native jar on disk
+     *
+     * @param jar Native jar
+     * @return Names of the entries it contained, excluded ones left out
+     * @throws IOException If the jar couldn't be read or an entry couldn't be written
+     */
+    @NonNull
+    public List<String> extract(@NonNull Path jar) throws IOException {
+        String sha1 = Utils.getArtifactLedger().getVerifiedSha1(jar);
+        if (sha1 == null) {
+            sha1 = VerificationEngine.sha1(jar);
+            Utils.getArtifactLedger().record(jar, sha1);
+        }
+        return extract(jar, sha1);
+    }
+
+    /**
+     * @return Names of the entries linked into the natives directory last, excluded ones left out
+     */
+    @NonNull
+    public List<String> getExtracted() {
+        return extracted;
+    }
+
+    /**
+     * Returns whether a jar with given SHA-1 was unpacked into the cache before
+     *
+     * @param sha1 SHA-1 of a native jar
+     * @return Whether its entries can be linked without reading the jar
+     */
+    public boolean isCached(@NonNull String sha1) {
+        return Files.exists(getCacheDirectory(sha1).resolve(ENTRIES_FILE));
+    }
+
+    /**
+     * Links the cached entries of a jar into the natives directory, replacing different files of the same name
+     *
+     * @param sha1 SHA-1 of a native jar which is cached
+     * @return Names of the linked entries
+     * @throws IOException If the cache entry is incomplete or an entry couldn't be linked
+     */
+    @NonNull
+    public List<String> link(@NonNull String sha1) throws IOException {
+        Path cache = getCacheDirectory(sha1);
+        List<String> names = new ArrayList<>();
+        for (String name : Files.readAllLines(cache.resolve(ENTRIES_FILE), StandardCharsets.UTF_8)) {
+            if (name.isEmpty() || exclude.stream().anyMatch(name::startsWith)) {
+                continue;
+            }
+            Path source = cache.resolve(name);
+            Path target = directory.resolve(name);
+            if (!FileLinks.isUpToDate(source, target)) {
+                Files.createDirectories(target.getParent());
+                Files.deleteIfExists(target);
+                FileLinks.link(source, target);
+            }
+            names.add(name);
+        }
+        extracted = names;
+        return names;
+    }
+
+    /**
+     * Writes the entries of a jar into a new temporary cache directory. The stream is read up to the end of the
+     * last entry and not closed
+     *
+     * @param jar Contents of a native jar
+     * @return Staged entries
+     * @throws IOException If the jar couldn't be read or an entry couldn't be written, nothing is left behind then
+     */
+    @NonNull
+    public Staged stage(@NonNull InputStream jar) throws IOException {
+        Files.createDirectories(Utils.getNativesCacheLocation());
+        Staged staged = new Staged(Files.createTempDirectory(Utils.getNativesCacheLocation(), ".staging"));
+        try {
+            ZipInputStream zip = new ZipInputStream(jar);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+
+                Path target = staged.directory.resolve(name).normalize();
+                if (!target.startsWith(staged.directory) || target.equals(staged.directory.resolve(ENTRIES_FILE))) {
+                    logger.warn("Skipping native {}", name);
+                    continue;
+                }
+                if (staged.names.contains(name)) {
+                    continue;
+                }
+
+                Files.createDirectories(target.getParent());
+                Files.copy(zip, target);
+                staged.names.add(name);
+            }
+        } catch (IOException e) {
+            staged.discard();
+            throw e;
+        }
+        return staged;
+    }
+
+    /**
+     * Deletes cache directories of native jars which no natives directory of an installed version was stamped with,
+     * e.g. after versions were removed, and temporary directories which were left behind for more than a day.
+     * Natives directories keep working, their hard links don't depend on the cache. Must not run while downloading
+     *
+     * @param dryRun Only count what would be deleted
+     * @return Bytes which were, or in a dry run would be, freed
+     */
+    public static long collectGarbage(boolean dryRun) {
+        Local local = new Local();
+        local.generateVersionList(Utils.getMineCraftVersionsLocation());
+        Set<String> referenced = new HashSet<>();
+        for (String version : local.versions_list) {
+            List<StampEntry> stamp = readStamp(Utils.getMineCraft_Versions_X_Natives_Location(version));
+            if (stamp != null) {
+                for (StampEntry entry : stamp) {
+                    referenced.add(entry.sha1.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(Utils.getNativesCacheLocation())) {
+            entries = files.collect(Collectors.toList());
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            logger.warn("Failed to list natives cache", e);
+            return 0;
+        }
+
+        long staleBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        int collected = 0;
+        long reclaimed = 0;
+        for (Path entry : entries) {
+            String name = entry.getFileName().toString();
+            try {
+                //staging and broken directories start with a dot
+                boolean garbage = name.startsWith(".")
+                        ? Files.getLastModifiedTime(entry).toMillis() < staleBefore
+                        : !referenced.contains(name);
+                if (!garbage) {
+                    continue;
+                }
+                reclaimed += getSize(entry);
+                if (!dryRun) {
+                    deleteTree(entry);
+                }
+                collected++;
+            } catch (IOException e) {
+                logger.warn("Failed to collect {}", entry, e);
+            }
+        }
+        logger.info("Collected {} of {} natives cache entries, {} bytes{}", collected, entries.size(), reclaimed, dryRun ? " (dry run)" : "");
+        return reclaimed;
+    }
+
+    private static long getSize(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            long size = 0;
+            for (Path file : (Iterable<Path>) files::iterator) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    size += attributes.size();
+                }
+            }
+            return size;
+        }
+    }
+
+    private static Path getCacheDirectory(String sha1) {
+        return Utils.getNativesCacheLocation().resolve(sha1.toLowerCase(Locale.ROOT));
+    }
+
+    /*
+     * SHA-1s of the jars, from the ledger where possible. Null if a jar is missing
+     */
+    @Nullable
+    private static Map<String, String> getSha1s(Collection<String> jars) {
+        Map<String, String> sha1s = new HashMap<>();
+        for (String jar : jars) {
+            Path path = Utils.getMineCraftLibrariesLocation().resolve(jar);
+            String sha1 = Utils.getArtifactLedger().getVerifiedSha1(path);
+            if (sha1 == null) {
+                try {
+                    sha1 = VerificationEngine.sha1(path);
+                } catch (IOException e) {
+                    logger.warn("Native jar {} is missing", path, e);
+                    return null;
+                }
+                Utils.getArtifactLedger().record(path, sha1);
+            }
+            sha1s.put(jar, sha1);
+        }
+        return sha1s;
+    }
+
+    private static boolean isUpToDate(Path directory, List<StampEntry> stamp, Map<String, List<String>> jars, Map<String, String> sha1s) {
+        if (stamp.size() != jars.size()) {
+            return false;
+        }
+        for (StampEntry entry : stamp) {
+            if (!entry.exclude.equals(jars.get(entry.jar)) || !entry.sha1.equalsIgnoreCase(sha1s.get(entry.jar))) {
+                return false;
+            }
+            for (String name : entry.names) {
+                if (!Files.exists(directory.resolve(name))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static List<StampEntry> readStamp(Path directory) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve(STAMP_FILE))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            int count = in.readInt();
+            List<StampEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String jar = in.readUTF();
+                String sha1 = in.readUTF();
+                entries.add(new StampEntry(jar, sha1, readStrings(in), readStrings(in)));
+            }
+            return entries;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.debug("Failed to read natives stamp of {}", directory, e);
+            return null;
+        }
+    }
+
+    private static void writeStamp(Path directory, Map<String, List<String>> jars, Map<String, String> sha1s, Map<String, List<String>> extracted) {
+        Path stamp = directory.resolve(STAMP_FILE);
+        Path temporary = directory.resolve(STAMP_FILE + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(jars.size());
+                for (Map.Entry<String, List<String>> jar : jars.entrySet()) {
+                    out.writeUTF(jar.getKey());
+                    out.writeUTF(sha1s.get(jar.getKey()));
+                    writeStrings(out, jar.getValue());
+                    writeStrings(out, extracted.get(jar.getKey()));
+                }
+            }
+            AtomicFiles.move(temporary, stamp);
+        } catch (IOException e) {
+            logger.warn("Failed to write natives stamp of {}", directory, e);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static class StampEntry {
+        private final String jar;
+        private final String sha1;
+        private final List<String> exclude;
+        private final List<String> names;
+
+        private StampEntry(String jar, String sha1, List<String> exclude, List<String> names) {
+            this.jar = jar;
+            this.sha1 = sha1;
+            this.exclude = exclude;
+            this.names = names;
+        }
+    }
+
+    /**
+     * Entries of one jar which were written to a temporary directory but not committed yet
+     */
+    public class Staged {
+        private final Path directory;
+        private final Set<String> names = new LinkedHashSet<>();
+
+        private Staged(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Turns the staged entries into the cache directory of the jar and links them into the natives directory.
+         * If another thread cached the same jar meanwhile, its entries are used instead
+         *
+         * @param sha1 Verified SHA-1 of the jar
+         * @throws IOException If the entries couldn't be cached or linked
+         */
+        public void commit(@NonNull String sha1) throws IOException {
+            try {
+                Files.write(directory.resolve(ENTRIES_FILE), names, StandardCharsets.UTF_8);
+                Path cache = getCacheDirectory(sha1);
+                if (!moveToCache(cache) && !isCached(sha1)) {
+                    //cache directories are moved in complete, one without entries list wasn't made by a commit
+                    Path broken = Files.createTempDirectory(Utils.getNativesCacheLocation(), ".broken");
+                    try {
+                        Files.move(cache, broken.resolve(sha1), StandardCopyOption.ATOMIC_MOVE);
+                    } catch (NoSuchFileException e) {
+                        logger.debug("Broken natives cache of {} was removed concurrently", sha1);
+                    } finally {
+                        deleteTree(broken);
+                    }
+                    moveToCache(cache);
+                }
+            } finally {
+                discard();
+            }
+            link(sha1);
+        }
+
+        /*
+         * Moves the staged entries into place, unless the jar was cached concurrently
+         */
+        private boolean moveToCache(Path cache) throws IOException {
+            try {
+                Files.move(directory, cache, StandardCopyOption.ATOMIC_MOVE);
+                return true;
+            } catch (FileSystemException e) {
+                //a non-empty target isn't always reported as DirectoryNotEmptyException, e.g. not on Linux
+                if (Files.notExists(cache)) {
+                    throw e;
+                }
+                logger.debug("Natives cache {} exists already", cache);
+                return false;
+            }
+        }
+
+        /**
+         * Deletes the staged entries
+         */
+        public void discard() {
+            try {
+                deleteTree(directory);
+            } catch (IOException e) {
+                logger.debug("Failed to delete {}", directory, e);
+            }
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (Files.notExists(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
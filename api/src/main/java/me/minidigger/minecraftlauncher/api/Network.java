@@ -26,13 +26,41 @@
 
 package me.minidigger.minecraftlauncher.api;
 
-import org.apache.commons.io.FileUtils;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import me.minidigger.minecraftlauncher.api.json.launcher.Downloadable;
+import me.minidigger.minecraftlauncher.api.verify.AtomicFiles;
+import me.minidigger.minecraftlauncher.api.verify.ExpectedFile;
+import me.minidigger.minecraftlauncher.api.verify.Hex;
+import me.minidigger.minecraftlauncher.api.verify.VerificationEngine;
+import me.minidigger.minecraftlauncher.api.verify.VerificationLevel;
+import me.minidigger.minecraftlauncher.api.verify.VerificationReport;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author ammar
@@ -41,12 +69,273 @@ class Network {
     private final static Logger logger = LoggerFactory.getLogger(Network.class);
 
     public final static String minecraftLibrariesUrl = "https://libraries.minecraft.net";
-    public final static String minecraftAssetsUrl = "http://resources.download.minecraft.net";
-    public final static String minecraftVersionsJsonUrl = "https://launchermeta.mojang.com/mc/game/version_manifest.json";
+    public final static String minecraftAssetsUrl = "https://resources.download.minecraft.net";
+    public final static String minecraftVersionsJsonUrl = "https://launchermeta.mojang.com/mc/game/version_manifest_v2.json";
     public final static String minecraftProfilesUrl = "https://api.mojang.com/users/profiles/minecraft";
 
+    /*
+     * One client for all traffic, so that connections (and TLS sessions) to the Mojang hosts are kept alive
+     * and reused between downloads. HTTP/2 lets parallel asset downloads share a single connection, and OkHttp
+     * asks for and transparently decompresses gzip responses, which the JSON endpoints make use of.
+     */
+    private final static OkHttpClient httpClient = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(16, 5, TimeUnit.MINUTES))
+            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .connectTimeout(15, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .build();
+
+    /*
+     * Segments of a download have to travel on connections of their own, over HTTP/2 they would all be
+     * multiplexed onto the one connection a single stream uses. The pool is still shared.
+     */
+    private final static OkHttpClient segmentClient = httpClient.newBuilder()
+            .protocols(Collections.singletonList(Protocol.HTTP_1_1))
+            .build();
+
+    private final static int DOWNLOAD_ATTEMPTS = 3;
+
+    private static volatile long segmentedDownloadThreshold = 8 * 1024 * 1024;
+    private static volatile int downloadSegments = 4;
+
     private Network() {}
 
+    /**
+     * Opens connections to the hosts used while downloading a version, so that the first real
+     * downloads don't have to wait for DNS, TCP and TLS handshakes
+     */
+    public static void prewarmConnections() {
+        for (String host : Arrays.asList(minecraftLibrariesUrl, minecraftAssetsUrl, minecraftVersionsJsonUrl)) {
+            Request request = new Request.Builder().url(host).head().build();
+            httpClient.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    logger.debug("Failed to pre-warm connection to {}", host, e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                }
+            });
+        }
+    }
+
+    private static void download(URL url, File file) throws IOException {
+        download(url, file, null, 0);
+    }
+
+    /*
+     * Interrupted downloads are resumed from their .part file, both by the retries here and by later downloads
+     * of the same file
+     */
+    private static void download(URL url, File file, @Nullable String sha1, long size) throws IOException {
+        download(url, file, sha1, size, null);
+    }
+
+    private static void download(URL url, File file, @Nullable String sha1, long size, @Nullable NativesExtractor extractor) throws IOException {
+        Path target = file.toPath();
+        PartialDownload partial = PartialDownload.open(target, url, sha1, size);
+        //files of unknown size, 0, are never segmented
+        if (extractor == null && partial.getOffset() == 0 && downloadSegments > 1 && size > 0 && size >= segmentedDownloadThreshold) {
+            boolean segmented = false;
+            try {
+                segmented = SegmentedDownload.download(segmentClient, url, partial.getPart(), size, downloadSegments);
+            } catch (InterruptedIOException e) {
+                partial.discard();
+                throw e;
+            } catch (IOException e) {
+                logger.info("Segmented download of {} failed, falling back to a single stream", url, e);
+                partial.discard();
+            }
+            if (segmented) {
+                complete(url, target, sha1, partial);
+                return;
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            Request.Builder request = new Request.Builder().url(url);
+            partial.apply(request);
+            try (Response response = httpClient.newCall(request.build()).execute()) {
+                receive(response, url, target, sha1, size, partial, extractor);
+                return;
+            } catch (IOException e) {
+                if (attempt >= DOWNLOAD_ATTEMPTS || !partial.isResumable()) {
+                    throw e;
+                }
+                logger.info("Download of {} was interrupted after {} bytes, resuming", url, partial.getOffset(), e);
+            }
+        }
+    }
+
+    /*
+     * Downloads a metadata file with a conditional request, using the validators of the copy on disk.
+     * Returns false if the server answered 304 and the file was kept as is. When the expected SHA-1 is
+     * known the caller already found the copy on disk to be outdated, so the request is unconditional
+     */
+    private static boolean downloadMetadata(URL url, File file, @Nullable String sha1) throws IOException {
+        Path target = file.toPath();
+        Request.Builder request = new Request.Builder().url(url);
+        MetadataValidators validators = sha1 == null ? MetadataValidators.load(target) : null;
+        if (validators != null) {
+            validators.apply(request);
+        }
+
+        try (Response response = httpClient.newCall(request.build()).execute()) {
+            if (response.code() == 304 && validators != null) {
+                logger.debug("{} not modified", url);
+                MetadataValidators.touch(target);
+                return false;
+            }
+            receive(response, url, target, sha1, 0, null, null);
+            MetadataValidators.store(target, response);
+            return true;
+        }
+    }
+
+    /*
+     * Streams the response into a .part file next to the target while hashing it, and only moves it
+     * into place once size and SHA-1 match. A file at its final location is therefore always complete.
+     */
+    private static void receive(Response response, URL url, Path target, @Nullable String sha1, long size,
+                                @Nullable PartialDownload partial, @Nullable NativesExtractor extractor) throws IOException {
+        ResponseBody body = response.body();
+        if (response.code() == 416 && partial != null) {
+            //the .part file doesn't fit the file on the server anymore
+            partial.discard();
+        }
+        if (!response.isSuccessful() || body == null) {
+            throw new IOException("Unexpected response " + response.code() + " for " + url);
+        }
+
+        Path part = partial != null ? partial.getPart() : target.resolveSibling(target.getFileName() + ".part");
+        Files.createDirectories(target.getParent());
+
+        MessageDigest digest = newSha1Digest();
+        long offset = 0;
+        boolean append = partial != null && partial.accept(response);
+        if (append) {
+            partial.digestExisting(digest);
+            offset = partial.getOffset();
+        }
+
+        NativesExtractor.Staged staged = null;
+        long received;
+        try (OutputStream out = append ? Files.newOutputStream(part, StandardOpenOption.APPEND) : Files.newOutputStream(part);
+             TeeInputStream in = new TeeInputStream(body.byteStream(), out, digest, offset, size, url)) {
+            //a whole jar can be unpacked while it streams by, a resumed one is unpacked from disk afterwards
+            if (extractor != null && !append) {
+                staged = extractor.stage(in);
+            }
+            in.drain();
+            received = in.getReceived();
+        } catch (IOException e) {
+            if (staged != null) {
+                staged.discard();
+            }
+            //keep what was received if the server lets us ask for the rest later, unless it was too much
+            if (e instanceof OverflowException || partial == null || !partial.isResumable()) {
+                abandon(part, partial);
+            }
+            throw e;
+        }
+
+        String actualSha1;
+        try {
+            if (size > 0 && received != size) {
+                abandon(part, partial);
+                throw new IOException("Expected " + size + " bytes but received " + received + " for " + url);
+            }
+
+            actualSha1 = Hex.toHexString(digest.digest());
+            if (sha1 != null && !sha1.equalsIgnoreCase(actualSha1)) {
+                abandon(part, partial);
+                throw new IOException("SHA-1 mismatch for " + url + ": expected " + sha1 + ", got " + actualSha1);
+            }
+
+            AtomicFiles.move(part, target);
+            if (partial != null) {
+                partial.complete();
+            }
+            if (sha1 != null) {
+                Utils.getArtifactLedger().record(target, actualSha1);
+            }
+        } catch (IOException e) {
+            if (staged != null) {
+                staged.discard();
+            }
+            throw e;
+        }
+
+        if (staged != null) {
+            staged.commit(actualSha1);
+        } else if (extractor != null) {
+            extractor.extract(target);
+        }
+    }
+
+    /*
+     * Verifies a file whose ranges were written out of order with one pass over it, and moves it into place
+     */
+    private static void complete(URL url, Path target, @Nullable String sha1, PartialDownload partial) throws IOException {
+        if (sha1 != null) {
+            String actualSha1 = VerificationEngine.sha1(partial.getPart());
+            if (!sha1.equalsIgnoreCase(actualSha1)) {
+                partial.discard();
+                throw new IOException("SHA-1 mismatch for " + url + ": expected " + sha1 + ", got " + actualSha1);
+            }
+        }
+
+        AtomicFiles.move(partial.getPart(), target);
+        partial.complete();
+        if (sha1 != null) {
+            Utils.getArtifactLedger().record(target, sha1);
+        }
+    }
+
+    /**
+     * Sets from which size on a file is downloaded as several ranges in parallel, if the server supports it
+     *
+     * @param threshold Size in bytes
+     * @param segments  Number of ranges, 1 disables segmented downloads
+     */
+    static void setSegmentedDownloads(long threshold, int segments) {
+        segmentedDownloadThreshold = threshold;
+        downloadSegments = segments;
+    }
+
+    private static void abandon(Path part, @Nullable PartialDownload partial) throws IOException {
+        if (partial != null) {
+            partial.discard();
+        } else {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    static boolean isInstalled(Path file, @Nullable String sha1, long size, VerificationLevel level) {
+        ExpectedFile expected = new ExpectedFile(file, sha1, size, null);
+        return Utils.getVerificationEngine().check(expected, level) == VerificationReport.Status.OK;
+    }
+
+    /*
+     * Downloads a file which failed verification again
+     */
+    static void downloadExpectedFile(ExpectedFile file) throws IOException {
+        if (file.getUrl() == null) {
+            throw new IOException("Don't know where to download " + file.getPath() + " from");
+        }
+        download(new URL(file.getUrl()), file.getPath().toFile(), file.getSha1(), file.getSize());
+    }
+
+    private static MessageDigest newSha1Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
     public static void downloadProfile(String _username) {
         try {
             URL url = new URL(minecraftProfilesUrl + "/" + _username);
@@ -55,45 +344,63 @@ class Network {
                 //do not download..
                 logger.debug("Profile for user {} already exists", _username);
             } else {
-                FileUtils.copyURLToFile(url, file);
+                download(url, file);
             }
         } catch (Exception e) {
             logger.warn("Failed to download profile for {}", _username, e);
         }
     }
 
-    public static void downloadLibraries(String _url, String _path, Boolean ForceDownload) {
-        try {
-            URL url = new URL(_url);
-            File file = new File(Utils.getMineCraftLibrariesLocation() + "/" + _path);
-            if (ForceDownload) {
-                FileUtils.copyURLToFile(url, file);
-            } else if (file.exists()) {
-                logger.debug("File Exists! - Skipping download");
-            } else {
-                FileUtils.copyURLToFile(url, file);
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to download libraries", e);
+    public static void downloadLibraries(String _url, String _path, @Nullable String sha1, long size, VerificationLevel level, Boolean ForceDownload) throws IOException {
+        URL url = new URL(_url);
+        File file = new File(Utils.getMineCraftLibrariesLocation() + "/" + _path);
+        if (ForceDownload) {
+            download(url, file, sha1, size);
+        } else if (isInstalled(file.toPath(), sha1, size, level)) {
+            logger.debug("File Exists! - Skipping download");
+        } else {
+            download(url, file, sha1, size);
         }
     }
 
-    public static void downloadAssetsObjects(String folder, String _hash) {
-        //resources.download.minecraft.net/4b/4b90ff3a9b1486642bc0f15da0045d83a91df82e
-        try {
-            URL url = new URL(minecraftAssetsUrl + "/" + folder + "/" + _hash);
-            File file = new File(Utils.getMineCraftAssetsObjectsLocation() + "/" + folder + "/" + _hash);
-            String sha1sum = Utils.getSha1Sum(file.toPath()) + ""; // TODO: fix this shit
-            if (file.exists() && sha1sum.equals(_hash)) {
-                //do not download..
-                logger.debug("File Exists!");
-                logger.debug("Hash Verified!");
-            } else {
-                //System.out.println("Calculated Hash:" + Utils.getSHA_1(file.toString()));
-                FileUtils.copyURLToFile(url, file);
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to download assets", e);
+    /**
+     * Downloads a native jar and unpacks it into given natives directory while it downloads. A jar which is
+     * already installed is unpacked from disk, and natives which were unpacked before are only linked
+     *
+     * @return Names of the unpacked entries
+     */
+    public static List<String> downloadNatives(String _url, String _path, @Nullable String sha1, long size, VerificationLevel level, Boolean ForceDownload,
+                                       Path nativesDirectory, List<String> exclude) throws IOException {
+        URL url = new URL(_url);
+        File file = new File(Utils.getMineCraftLibrariesLocation() + "/" + _path);
+        NativesExtractor extractor = new NativesExtractor(nativesDirectory, exclude);
+        if (!ForceDownload && isInstalled(file.toPath(), sha1, size, level)) {
+            logger.debug("File Exists! - Skipping download");
+            extractor.extract(file.toPath());
+        } else if (sha1 != null && extractor.isCached(sha1)) {
+            //another version brought the same natives, only the jar itself is missing
+            download(url, file, sha1, size);
+            extractor.link(sha1);
+        } else {
+            download(url, file, sha1, size, extractor);
+        }
+        return extractor.getExtracted();
+    }
+
+    /**
+     * @param objectUrl Url of the object, e.g. {@code resources.download.minecraft.net/4b/4b90ff3a9b1486642bc0f15da0045d83a91df82e}
+     * @param location  Location of the object relative to the objects folder, {@code <first two hex digits>/<hash>}
+     */
+    public static void downloadAssetsObjects(String objectUrl, String location, long size, VerificationLevel level) throws IOException {
+        URL url = new URL(objectUrl);
+        File file = Utils.getMineCraftAssetsObjectsLocation().resolve(location).toFile();
+        String _hash = location.substring(3);
+        if (isInstalled(file.toPath(), _hash, size, level)) {
+            //do not download..
+            logger.debug("File Exists!");
+            logger.debug("Hash Verified!");
+        } else {
+            download(url, file, _hash, size);
         }
     }
 
@@ -102,59 +409,144 @@ class Network {
             URL url = new URL(_url);
             File file = Utils.getMineCraftAssetsIndexes_X_json(version).toFile();
             if (ForceDownload) {
-                FileUtils.copyURLToFile(url, file);
+                download(url, file);
             } else if (file.exists()) {
                 //do not download..
                 logger.debug("File Exists! - Skipping download");
             } else {
-                FileUtils.copyURLToFile(url, file);
+                download(url, file);
             }
         } catch (Exception e) {
             logger.warn("Failed to download launcher meta", e);
         }
     }
 
-    public static void downloadMinecraftJar(String version, Boolean ForceDownload) {
-        try {
-            URL url = new URL(minecraftVersionsJsonUrl + "/" + version + "/" + version + ".jar");
-            File file = Utils.getMineCraft_Versions_X_X_jar_Location(version).toFile();
-            if (ForceDownload) {
-                FileUtils.copyURLToFile(url, file);
-            } else if (file.exists()) {
-                //do not download..
-                logger.debug("File Exists! - Skipping download");
-            } else {
-                FileUtils.copyURLToFile(url, file);
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to download Minecraft jar", e);
+    public static void downloadMinecraftJar(String version, Downloadable client, VerificationLevel level, Boolean ForceDownload) throws IOException {
+        File file = Utils.getMineCraft_Versions_X_X_jar_Location(version).toFile();
+        if (ForceDownload) {
+            download(client.getUrl(), file, client.getSha1(), client.getSize());
+        } else if (isInstalled(file.toPath(), client.getSha1(), client.getSize(), level)) {
+            //do not download..
+            logger.debug("File Exists! - Skipping download");
+        } else {
+            download(client.getUrl(), file, client.getSha1(), client.getSize());
         }
     }
 
-    public static void downloadVersionManifest(Path _filepath) {
+    /**
+     * Downloads the version manifest, unless the server was asked about the copy on disk less than
+     * {@code maxAge} milliseconds ago
+     *
+     * @return Whether the manifest on disk was replaced
+     */
+    public static boolean downloadVersionManifest(Path _filepath, long maxAge) {
+        MetadataValidators validators = MetadataValidators.load(_filepath);
+        if (validators != null && validators.getAge() < maxAge) {
+            logger.debug("Version manifest was checked {} ms ago", validators.getAge());
+            return false;
+        }
+
         try {
             URL url = new URL(minecraftVersionsJsonUrl);
             File file = _filepath.toFile();
-            FileUtils.copyURLToFile(url, file);
+            if (downloadMetadata(url, file, null)) {
+                VersionMetadataCache.invalidate(_filepath);
+                return true;
+            }
         } catch (Exception e) {
             logger.warn("Failed to download version manifest", e);
         }
+        return false;
     }
 
-    public static void downloadVersionJson(String _url, String versionnumber) {
+    /**
+     * Downloads a version json, unless the copy on disk already has the SHA-1 published in the version
+     * manifest. Without a known SHA-1 a conditional request is made instead
+     */
+    public static void downloadVersionJson(String _url, String versionnumber, @Nullable String sha1) {
         try {
             URL url = new URL(_url);
             File file = Utils.getMineCraft_Versions_X_X_json(versionnumber).toFile();
-            /*if (file.exists()){
-                //do not download..
-                System.out.println("File Exists!");
-            } else {
-                FileUtils.copyURLToFile(url, file);
-            }*/
-            FileUtils.copyURLToFile(url, file);
-
+            if (sha1 != null && isInstalled(file.toPath(), sha1, 0, VerificationLevel.MTIME)) {
+                logger.debug("Version json of {} is up to date", versionnumber);
+                return;
+            }
+            if (downloadMetadata(url, file, sha1)) {
+                VersionMetadataCache.invalidate(file.toPath());
+            }
         } catch (Exception e) {
             logger.warn("Failed to download version json", e);
         }
     }
+
+    /*
+     * Writes and hashes everything read through it, so whoever consumes the response body also fills the .part file
+     */
+    private static class TeeInputStream extends FilterInputStream {
+        private final OutputStream out;
+        private final MessageDigest digest;
+        private final long size;
+        private final URL url;
+        private long received;
+
+        private TeeInputStream(InputStream in, OutputStream out, MessageDigest digest, long offset, long size, URL url) {
+            super(in);
+            this.out = out;
+            this.digest = digest;
+            this.received = offset;
+            this.size = size;
+            this.url = url;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int read = super.read(buffer, off, len);
+            if (read > 0) {
+                received += read;
+                if (size > 0 && received > size) {
+                    throw new OverflowException("Received more than the declared " + size + " bytes for " + url);
+                }
+                digest.update(buffer, off, read);
+                out.write(buffer, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 64 * 1024)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void drain() throws IOException {
+            byte[] buffer = new byte[64 * 1024];
+            while (read(buffer, 0, buffer.length) != -1) {
+                //written while reading
+            }
+        }
+
+        private long getReceived() {
+            return received;
+        }
+    }
+
+    private static class OverflowException extends IOException {
+        private final static long serialVersionUID = 1L;
+
+        private OverflowException(String message) {
+            super(message);
+        }
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * The .part file of a download together with a .part.meta file describing what it is a prefix of: url, declared
+ * SHA-1 and size, and the validator of the response it came from. Both survive an interrupted download, so the
+ * next attempt can ask the server for the remaining bytes only. The validator is sent as {@code If-Range}, which
+ * makes the server answer with the whole file instead if it changed in the meantime
+ */
+class PartialDownload {
+    private final static Logger logger = LoggerFactory.getLogger(PartialDownload.class);
+
+    private final Path part;
+    private final Path meta;
+    private final URL url;
+    @Nullable
+    private final String sha1;
+    private final long size;
+    @Nullable
+    private String validator;
+    private long offset;
+
+    private PartialDownload(Path target, URL url, @Nullable String sha1, long size) {
+        this.part = target.resolveSibling(target.getFileName() + ".part");
+        this.meta = target.resolveSibling(target.getFileName() + ".part.meta");
+        this.url = url;
+        this.sha1 = sha1;
+        this.size = size;
+    }
+
+    /**
+     * Picks up the partial download of given file, if one for the same url and contents was left behind
+     *
+     * @param target Final location of the download
+     * @param url    Url the file is downloaded from
+     * @param sha1   Declared SHA-1, if known
+     * @param size   Declared size, or 0 if not known
+     * @return Partial download, starting at offset 0 if there is nothing to resume
+     */
+    @NonNull
+    public static PartialDownload open(@NonNull Path target, @NonNull URL url, @Nullable String sha1, long size) {
+        PartialDownload download = new PartialDownload(target, url, sha1, size);
+        download.load();
+        return download;
+    }
+
+    private void load() {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(meta)) {
+            properties.load(in);
+            long length = Files.size(part);
+            if (url.toString().equals(properties.getProperty("url"))
+                    && Objects.equals(sha1, properties.getProperty("sha1"))
+                    && Long.toString(size).equals(properties.getProperty("size"))
+                    && properties.getProperty("validator") != null
+                    && length > 0 && (size <= 0 || length < size)) {
+                validator = properties.getProperty("validator");
+                offset = length;
+                return;
+            }
+        } catch (NoSuchFileException e) {
+            //nothing to resume
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Failed to read {}", meta, e);
+        }
+        discard();
+    }
+
+    /**
+     * Asks for the remaining bytes only, if there are any to resume from
+     *
+     * @param request Request for the file
+     */
+    public void apply(Request.@NonNull Builder request) {
+        if (offset > 0 && validator != null) {
+            request.header("Range", "bytes=" + offset + "-");
+            request.header("If-Range", validator);
+        }
+    }
+
+    /**
+     * Checks whether given response continues the bytes already on disk. If it doesn't, the .part file is
+     * started over and described by the validator of the response
+     *
+     * @param response Response to write into the .part file
+     * @return Whether the response body has to be appended to the .part file
+     * @throws IOException If the .part file couldn't be reset
+     */
+    public boolean accept(@NonNull Response response) throws IOException {
+        if (offset > 0 && response.code() == 206
+                && String.valueOf(response.header("Content-Range")).startsWith("bytes " + offset + "-")) {
+            logger.debug("Resuming {} at {} bytes", url, offset);
+            return true;
+        }
+
+        offset = 0;
+        validator = getValidator(response);
+        Files.deleteIfExists(part);
+        if (validator == null) {
+            Files.deleteIfExists(meta);
+            return false;
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("url", url.toString());
+        if (sha1 != null) {
+            properties.setProperty("sha1", sha1);
+        }
+        properties.setProperty("size", Long.toString(size));
+        properties.setProperty("validator", validator);
+        Files.createDirectories(meta.getParent());
+        try (OutputStream out = Files.newOutputStream(meta)) {
+            properties.store(out, null);
+        }
+        return false;
+    }
+
+    /**
+     * Feeds the bytes already on disk into given digest
+     *
+     * @param digest Digest of the whole file
+     * @throws IOException If the .part file couldn't be read
+     */
+    public void digestExisting(@NonNull MessageDigest digest) throws IOException {
+        try (InputStream in = Files.newInputStream(part)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Returns whether what was received so far can be resumed by another attempt
+     *
+     * @return Whether a validator is known and the .part file isn't empty
+     */
+    public boolean isResumable() {
+        if (validator == null) {
+            return false;
+        }
+        try {
+            offset = Files.size(part);
+        } catch (IOException e) {
+            offset = 0;
+        }
+        return offset > 0;
+    }
+
+    /**
+     * Deletes the .part file and its description
+     */
+    public void discard() {
+        offset = 0;
+        validator = null;
+        try {
+            Files.deleteIfExists(part);
+            Files.deleteIfExists(meta);
+        } catch (IOException e) {
+            logger.debug("Failed to delete {}", part, e);
+        }
+    }
+
+    /**
+     * Deletes the description once the .part file was moved into place
+     */
+    public void complete() {
+        try {
+            Files.deleteIfExists(meta);
+        } catch (IOException e) {
+            logger.debug("Failed to delete {}", meta, e);
+        }
+    }
+
+    @NonNull
+    public Path getPart() {
+        return part;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /*
+     * Only strong ETags may be used with If-Range, Last-Modified is the fallback
+     */
+    @Nullable
+    static String getValidator(Response response) {
+        String etag = response.header("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return response.header("Last-Modified");
+    }
+}
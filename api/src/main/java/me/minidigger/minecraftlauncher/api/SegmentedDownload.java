@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Downloads a large file as several byte ranges at once, so the transfer isn't limited by what a single TCP
+ * connection manages on a high-latency link. Every range is written straight to its place in a preallocated
+ * file, the caller verifies the whole file afterwards
+ */
+class SegmentedDownload {
+    private final static Logger logger = LoggerFactory.getLogger(SegmentedDownload.class);
+
+    private final OkHttpClient httpClient;
+    private final URL url;
+    private final FileChannel channel;
+    private final CountDownLatch remaining;
+    private final List<Call> calls = new CopyOnWriteArrayList<>();
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    private SegmentedDownload(OkHttpClient httpClient, URL url, FileChannel channel, int segments) {
+        this.httpClient = httpClient;
+        this.url = url;
+        this.channel = channel;
+        this.remaining = new CountDownLatch(segments);
+    }
+
+    /**
+     * Downloads given file in parallel byte ranges
+     *
+     * @param httpClient Client to download with
+     * @param url        Url of the file
+     * @param part       File to write to, it is replaced
+     * @param size       Declared size of the file
+     * @param segments   Number of ranges to split the file into
+     * @return {@code false} if the server doesn't advertise range requests for the file, in which case nothing
+     * was downloaded and the caller should use a single stream
+     * @throws IOException If any of the ranges failed
+     */
+    public static boolean download(@NonNull OkHttpClient httpClient, @NonNull URL url, @NonNull Path part, long size, int segments) throws IOException {
+        if (size <= 0 || segments < 2) {
+            return false;
+        }
+        String validator;
+        Request probe = new Request.Builder().url(url).head().build();
+        try (Response response = httpClient.newCall(probe).execute()) {
+            if (!response.isSuccessful() || !"bytes".equalsIgnoreCase(response.header("Accept-Ranges"))) {
+                logger.debug("{} doesn't advertise range requests", url);
+                return false;
+            }
+            String length = response.header("Content-Length");
+            if (length != null && !length.equals(Long.toString(size))) {
+                logger.debug("{} is {} bytes instead of the declared {}", url, length, size);
+                return false;
+            }
+            validator = PartialDownload.getValidator(response);
+        }
+
+        long segmentSize = (size + segments - 1) / segments;
+        int count = (int) ((size + segmentSize - 1) / segmentSize);
+        Files.createDirectories(part.getParent());
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            //preallocate, so the ranges can be written in any order
+            channel.write(ByteBuffer.allocate(1), size - 1);
+
+            SegmentedDownload download = new SegmentedDownload(httpClient, url, channel, count);
+            for (long start = 0; start < size; start += segmentSize) {
+                download.enqueue(start, Math.min(start + segmentSize, size) - 1, validator);
+            }
+            download.await();
+        }
+        return true;
+    }
+
+    private void enqueue(long start, long end, @Nullable String validator) {
+        Request.Builder request = new Request.Builder().url(url).header("Range", "bytes=" + start + "-" + end);
+        if (validator != null) {
+            //a changed file comes back as a whole 200 response, which fails the segment
+            request.header("If-Range", validator);
+        }
+
+        Call call = httpClient.newCall(request.build());
+        calls.add(call);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                fail(e);
+                remaining.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    receive(r, start, end);
+                } catch (IOException e) {
+                    fail(e);
+                } finally {
+                    remaining.countDown();
+                }
+            }
+        });
+    }
+
+    private void receive(Response response, long start, long end) throws IOException {
+        ResponseBody body = response.body();
+        String contentRange = response.header("Content-Range");
+        if (response.code() != 206 || body == null || contentRange == null
+                || !contentRange.startsWith("bytes " + start + "-" + end + "/")) {
+            throw new IOException("Unexpected response " + response.code() + " for bytes " + start + "-" + end + " of " + url);
+        }
+
+        long position = start;
+        try (InputStream in = body.byteStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (position + read > end + 1) {
+                    throw new IOException("Received more than bytes " + start + "-" + end + " of " + url);
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+                if (failure.get() != null) {
+                    return;
+                }
+            }
+        }
+        if (position != end + 1) {
+            throw new IOException("Received " + (position - start) + " of bytes " + start + "-" + end + " of " + url);
+        }
+    }
+
+    private void fail(IOException e) {
+        if (failure.compareAndSet(null, e)) {
+            calls.forEach(Call::cancel);
+        }
+    }
+
+    private void await() throws IOException {
+        try {
+            remaining.await();
+        } catch (InterruptedException e) {
+            calls.forEach(Call::cancel);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading " + url);
+        }
+
+        IOException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+}
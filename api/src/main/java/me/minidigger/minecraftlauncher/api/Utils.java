@@ -26,6 +26,8 @@
 
 package me.minidigger.minecraftlauncher.api;
 
+import me.minidigger.minecraftlauncher.api.verify.ArtifactLedger;
+import me.minidigger.minecraftlauncher.api.verify.VerificationEngine;
 import net.kyori.nbt.CompoundTag;
 import net.kyori.nbt.ListTag;
 import net.kyori.nbt.TagIO;
@@ -40,10 +42,6 @@ import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -58,6 +56,8 @@ class Utils {
     private final static SecureRandom random = new SecureRandom();
     private static OperatingSystem currentOS;
     private static Path minecraftDataDirectory;
+    private static ArtifactLedger artifactLedger;
+    private static VerificationEngine verificationEngine;
 
     private Utils() {}
 
@@ -69,6 +69,34 @@ class Utils {
         return minecraftDataDirectory;
     }
 
+    public static Path getResolvedVersionsLocation() {
+        return getMinecraftDataDirectory().resolve("launcher_cache").resolve("resolved");
+    }
+
+    public static Path getLaunchPlansLocation() {
+        return getMinecraftDataDirectory().resolve("launcher_cache").resolve("plans");
+    }
+
+    public static Path getArtifactLedgerLocation() {
+        return getMinecraftDataDirectory().resolve("launcher_ledger.bin");
+    }
+
+    @NonNull
+    public static synchronized ArtifactLedger getArtifactLedger() {
+        if(artifactLedger == null)
+            artifactLedger = ArtifactLedger.load(getArtifactLedgerLocation(), getMinecraftDataDirectory());
+
+        return artifactLedger;
+    }
+
+    @NonNull
+    public static synchronized VerificationEngine getVerificationEngine() {
+        if(verificationEngine == null)
+            verificationEngine = new VerificationEngine(getArtifactLedger());
+
+        return verificationEngine;
+    }
+
     public static Path getMinecraftServersList() {
         return minecraftDataDirectory.resolve("servers.dat");
     }
@@ -244,58 +272,23 @@ class Utils {
     @Nullable
     public static String getSha1Sum(@NonNull Path path) {
         try {
-            InputStream fis = Files.newInputStream(path, StandardOpenOption.READ);
-            MessageDigest md = MessageDigest.getInstance("SHA1");
-            byte[] dataBytes = new byte[1024];
-
-            int nread;
-            while((nread = fis.read(dataBytes)) != -1)
-                md.update(dataBytes, 0, nread);
-
-            byte[] digestBytes = md.digest();
-
-            StringBuilder sb = new StringBuilder();
-            for(byte b : digestBytes)
-                sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-
-            return sb.toString();
-
-        } catch (NoSuchAlgorithmException | IOException ex) {
+            return VerificationEngine.sha1(path);
+        } catch (IOException ex) {
             logger.error("Failed to get SHA1 {}", path, ex);
             return null;
         }
     }
 
     public static void jarExtract(Path _jarFile, Path destDir) {
-        try {
-            _jarFile = setMineCraft_Versions_X_NativesLocation(_jarFile.toString());
-            //_jarFile = _jarFile.replace("https://libraries.minecraft.net", "/home/ammar/NetBeansProjects/TagAPI_3/testx/libraries");
-            if (Files.notExists(destDir)) {
-                Files.createDirectories(destDir);
-            }
-
-            java.util.jar.JarFile jar = new java.util.jar.JarFile(_jarFile.toFile());
-            java.util.Enumeration enumEntries = jar.entries();
-            while (enumEntries.hasMoreElements()) {
-                java.util.jar.JarEntry file = (java.util.jar.JarEntry) enumEntries.nextElement();
-                java.io.File f = new java.io.File(destDir + java.io.File.separator + file.getName());
-                if (file.isDirectory()) { // if its a directory, create it
-                    f.mkdirs();
-                    continue;
-                }
-                if (!f.exists()) {
-                    java.io.InputStream is = jar.getInputStream(file); // get the input stream
-                    java.io.FileOutputStream fos = new java.io.FileOutputStream(f);
-                    while (is.available() > 0) {  // write contents of 'is' to 'fos'
-                        fos.write(is.read());
-                    }
-                    fos.close();
-                    is.close();
+        jarExtract(_jarFile, destDir, Collections.emptyList());
+    }
 
-                }
-            }
+    public static void jarExtract(Path _jarFile, Path destDir, List<String> exclude) {
+        Path jarFile = setMineCraft_Versions_X_NativesLocation(_jarFile.toString());
+        try {
+            new NativesExtractor(destDir, exclude).extract(jarFile);
         } catch (Exception e) {
-            logger.warn("Failed to extract JAR {}", _jarFile, e);
+            logger.warn("Failed to extract JAR {}", jarFile, e);
         }
     }
 
@@ -307,15 +300,27 @@ class Utils {
         return getMineCraftAssetsVirtualLocation().resolve("legacy");
     }
 
-    public static void copyToVirtual(String folder, String sha1hash, String virtualfolder) {
-        try {
-            Path source = getMineCraftAssetsObjectsLocation().resolve(folder + "/" + sha1hash);
-            Path dest = getMineCraftAssetsVirtualLegacyLocation().resolve(virtualfolder.replaceFirst("minecraft/", ""));
-            Files.copy(source, dest, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException ex) {
-            logger.warn("Failed to copy", ex);
-        }
+    public static Path getMineCraftResourcesLocation() {
+        return getMinecraftDataDirectory().resolve("resources");
+    }
+
+    public static Path getVirtualAssetManifestLocation(String tree) {
+        return getMinecraftDataDirectory().resolve("launcher_cache").resolve("virtual").resolve(tree + ".bin");
+    }
+
+    public static Path getNativesCacheLocation() {
+        return getMinecraftDataDirectory().resolve("launcher_cache").resolve("natives");
+    }
+
+    public static Path getGameLogsLocation() {
+        return getMinecraftDataDirectory().resolve("launcher_logs");
+    }
 
+    public static Path getMetadataValidatorsLocation(Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        Path relative = absolute.startsWith(getMinecraftDataDirectory())
+                ? getMinecraftDataDirectory().relativize(absolute) : absolute.getFileName();
+        return getMinecraftDataDirectory().resolve("launcher_cache").resolve("validators").resolve(relative + ".properties");
     }
 
     public static OperatingSystem getOS() {
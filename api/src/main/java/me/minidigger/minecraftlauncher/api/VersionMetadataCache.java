@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import com.google.gson.JsonParseException;
+import me.minidigger.minecraftlauncher.api.json.LauncherGson;
+import me.minidigger.minecraftlauncher.api.json.launcher.LauncherPackage;
+import me.minidigger.minecraftlauncher.api.json.launcher.VersionManifest;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses version jsons into {@link LauncherPackage}s and the version manifest into a {@link VersionManifest} once
+ * and keeps them around for as long as the file on disk doesn't change, so launching and downloading never read
+ * the same json twice
+ */
+class VersionMetadataCache {
+    private final static Logger logger = LoggerFactory.getLogger(VersionMetadataCache.class);
+    private final static Map<Path, CachedFile> cache = new ConcurrentHashMap<>();
+
+    private VersionMetadataCache() {}
+
+    /**
+     * Gets the parsed json of an installed version
+     *
+     * @param version Version id
+     * @return Parsed version json, or {@code null} if it is missing or can't be parsed
+     */
+    @Nullable
+    public static LauncherPackage get(@NonNull String version) {
+        return get(Utils.getMineCraft_Version_Json(version));
+    }
+
+    /**
+     * Gets the parsed version json at given path. A cached instance is returned as long as size and
+     * modification time of the file are unchanged
+     *
+     * @param path Path to the version json
+     * @return Parsed version json, or {@code null} if it is missing or can't be parsed
+     */
+    @Nullable
+    public static LauncherPackage get(@NonNull Path path) {
+        return load(path, LauncherPackage.class, "version json");
+    }
+
+    /**
+     * Gets the parsed version manifest, shared by all {@link LauncherAPI} instances
+     *
+     * @return Parsed version manifest, or {@code null} if it wasn't downloaded yet or can't be parsed
+     */
+    @Nullable
+    public static VersionManifest getVersionManifest() {
+        return load(Utils.getMineCraft_Version_Manifest_json(), VersionManifest.class, "version manifest");
+    }
+
+    @Nullable
+    private static <T> T load(Path path, Class<T> type, String description) {
+        Path key = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            cache.remove(key);
+            return null;
+        } catch (IOException e) {
+            logger.warn("Failed to stat {}", key, e);
+            return null;
+        }
+
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        CachedFile cached = cache.get(key);
+        if (cached != null && cached.size == size && cached.modified == modified && type.isInstance(cached.value)) {
+            return type.cast(cached.value);
+        }
+
+        T value;
+        try (Reader reader = Files.newBufferedReader(key)) {
+            value = LauncherGson.getGson().fromJson(reader, type);
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Failed to parse {} {}", description, key, e);
+            cache.remove(key);
+            return null;
+        }
+
+        if (value != null) {
+            cache.put(key, new CachedFile(size, modified, value));
+        }
+        return value;
+    }
+
+    /**
+     * Forgets the cached json at given path, e.g. after it was downloaded again
+     *
+     * @param path Path to the version json or version manifest
+     */
+    public static void invalidate(@NonNull Path path) {
+        cache.remove(path.toAbsolutePath().normalize());
+    }
+
+    private static class CachedFile {
+        private final long size;
+        private final long modified;
+        private final Object value;
+
+        private CachedFile(long size, long modified, Object value) {
+            this.size = size;
+            this.modified = modified;
+            this.value = value;
+        }
+    }
+}
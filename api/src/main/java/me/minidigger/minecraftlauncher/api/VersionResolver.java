@@ -0,0 +1,324 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import me.minidigger.minecraftlauncher.api.json.LauncherGson;
+import me.minidigger.minecraftlauncher.api.json.launcher.LauncherPackage;
+import me.minidigger.minecraftlauncher.api.verify.AtomicFiles;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves versions which inherit from other versions (Forge, Fabric, ...) into a single flat version.
+ *
+ * The child overrides everything it declares, libraries are deduplicated by group, artifact and classifier
+ * with the child's entry winning, and game and JVM arguments are concatenated. Merged versions are written to
+ * {@link Utils#getResolvedVersionsLocation()} together with size and modification time of every json in the
+ * chain, so later launches only have to stat those files.
+ */
+class VersionResolver {
+    private final static Logger logger = LoggerFactory.getLogger(VersionResolver.class);
+    private final static int MAX_DEPTH = 16;
+
+    private final static Map<String, ResolvedVersion> cache = new ConcurrentHashMap<>();
+
+    private VersionResolver() {}
+
+    /**
+     * Gets the version at the root of the inheritance chain, i.e. the vanilla version a modded version is based on
+     *
+     * @param version Version id
+     * @return Root version id, which is {@code version} itself if it doesn't inherit from anything
+     */
+    @NonNull
+    public static String getRootVersion(@NonNull String version) {
+        List<String> chain = getInheritanceChain(version);
+        return chain.get(chain.size() - 1);
+    }
+
+    /**
+     * Gets given version followed by every version it inherits from, as far as their jsons are installed
+     *
+     * @param version Version id
+     * @return Version ids, starting with {@code version} and ending with the root version
+     */
+    @NonNull
+    public static List<String> getInheritanceChain(@NonNull String version) {
+        List<String> chain = new ArrayList<>();
+        String current = version;
+        while (!chain.contains(current)) {
+            chain.add(current);
+            LauncherPackage launcherPackage = VersionMetadataCache.get(current);
+            if (launcherPackage == null || launcherPackage.getInheritsFrom() == null) {
+                break;
+            }
+            current = launcherPackage.getInheritsFrom();
+        }
+        return chain;
+    }
+
+    /**
+     * Gets given version with its whole inheritance chain merged into it
+     *
+     * @param version Version id
+     * @return Resolved version, or {@code null} if a json of the chain is missing or broken
+     */
+    @Nullable
+    public static LauncherPackage resolve(@NonNull String version) {
+        ResolvedVersion cached = cache.get(version);
+        if (cached != null && cached.isUpToDate()) {
+            return cached.launcherPackage;
+        }
+
+        ResolvedVersion resolved = readResolved(version);
+        if (resolved == null) {
+            LauncherPackage launcherPackage = VersionMetadataCache.get(version);
+            if (launcherPackage == null || launcherPackage.getInheritsFrom() == null) {
+                return launcherPackage;
+            }
+
+            resolved = merge(version);
+            if (resolved == null) {
+                return null;
+            }
+            writeResolved(version, resolved);
+        }
+
+        cache.put(version, resolved);
+        return resolved.launcherPackage;
+    }
+
+    @Nullable
+    private static ResolvedVersion merge(String version) {
+        List<Source> sources = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        JsonObject merged = null;
+        String current = version;
+        String root = version;
+
+        while (current != null) {
+            if (!seen.add(current) || seen.size() > MAX_DEPTH) {
+                logger.error("Inheritance of {} loops or is too deep at {}", version, current);
+                return null;
+            }
+
+            Path json = Utils.getMineCraft_Version_Json(current);
+            Source source = Source.of(json);
+            JsonObject object = read(json);
+            if (source == null || object == null) {
+                logger.error("Unable to resolve {}, version json of {} is missing", version, current);
+                return null;
+            }
+            sources.add(source);
+
+            merged = merged == null ? object : inherit(merged, object);
+            root = current;
+            current = object.has("inheritsFrom") ? object.get("inheritsFrom").getAsString() : null;
+        }
+
+        merged.remove("inheritsFrom");
+        if (!merged.has("jar") && !root.equals(version)) {
+            merged.addProperty("jar", root);
+        }
+
+        try {
+            return new ResolvedVersion(sources, merged, LauncherGson.getGson().fromJson(merged, LauncherPackage.class));
+        } catch (JsonParseException e) {
+            logger.error("Failed to parse resolved version {}", version, e);
+            return null;
+        }
+    }
+
+    private static JsonObject inherit(JsonObject child, JsonObject parent) {
+        JsonObject result = parent.deepCopy();
+        for (Map.Entry<String, JsonElement> entry : child.entrySet()) {
+            switch (entry.getKey()) {
+                case "inheritsFrom":
+                    break;
+                case "libraries":
+                    result.add("libraries", mergeLibraries(entry.getValue().getAsJsonArray(), parent.getAsJsonArray("libraries")));
+                    break;
+                case "arguments":
+                    result.add("arguments", mergeArguments(entry.getValue().getAsJsonObject(), parent.getAsJsonObject("arguments")));
+                    break;
+                default:
+                    result.add(entry.getKey(), entry.getValue().deepCopy());
+                    break;
+            }
+        }
+        return result;
+    }
+
+    private static JsonArray mergeLibraries(JsonArray child, @Nullable JsonArray parent) {
+        JsonArray libraries = new JsonArray();
+        Set<String> keys = new LinkedHashSet<>();
+        for (JsonElement library : child) {
+            keys.add(getLibraryKey(library));
+            libraries.add(library.deepCopy());
+        }
+        if (parent != null) {
+            for (JsonElement library : parent) {
+                if (!keys.contains(getLibraryKey(library))) {
+                    libraries.add(library.deepCopy());
+                }
+            }
+        }
+        return libraries;
+    }
+
+    // group:artifact plus classifier, so that e.g. lwjgl and its natives stay separate entries
+    private static String getLibraryKey(JsonElement library) {
+        JsonPrimitive name = library.getAsJsonObject().getAsJsonPrimitive("name");
+        if (name == null) {
+            return library.toString();
+        }
+
+        String[] parts = name.getAsString().split(":");
+        if (parts.length < 2) {
+            return name.getAsString();
+        }
+        return parts[0] + ":" + parts[1] + (parts.length > 3 ? ":" + parts[3] : "");
+    }
+
+    private static JsonObject mergeArguments(JsonObject child, @Nullable JsonObject parent) {
+        JsonObject arguments = parent != null ? parent.deepCopy() : new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : child.entrySet()) {
+            JsonArray values = arguments.has(entry.getKey()) ? arguments.getAsJsonArray(entry.getKey()) : new JsonArray();
+            values.addAll(entry.getValue().getAsJsonArray().deepCopy());
+            arguments.add(entry.getKey(), values);
+        }
+        return arguments;
+    }
+
+    @Nullable
+    private static JsonObject read(Path json) {
+        try (Reader reader = Files.newBufferedReader(json)) {
+            return new JsonParser().parse(reader).getAsJsonObject();
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            logger.warn("Failed to read {}", json, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static ResolvedVersion readResolved(String version) {
+        Path file = Utils.getResolvedVersionsLocation().resolve(version + ".json");
+        if (Files.notExists(file)) {
+            return null;
+        }
+
+        JsonObject cached = read(file);
+        if (cached == null || !cached.has("sources") || !cached.has("version")) {
+            return null;
+        }
+
+        List<Source> sources = new ArrayList<>();
+        for (JsonElement element : cached.getAsJsonArray("sources")) {
+            JsonObject source = element.getAsJsonObject();
+            sources.add(new Source(source.get("path").getAsString(), source.get("size").getAsLong(), source.get("modified").getAsLong()));
+        }
+
+        JsonObject merged = cached.getAsJsonObject("version");
+        ResolvedVersion resolved;
+        try {
+            resolved = new ResolvedVersion(sources, merged, LauncherGson.getGson().fromJson(merged, LauncherPackage.class));
+        } catch (JsonParseException e) {
+            logger.warn("Ignoring broken resolved version {}", file, e);
+            return null;
+        }
+        return resolved.isUpToDate() ? resolved : null;
+    }
+
+    private static void writeResolved(String version, ResolvedVersion resolved) {
+        JsonArray sources = new JsonArray();
+        for (Source source : resolved.sources) {
+            JsonObject object = new JsonObject();
+            object.addProperty("path", source.getPath());
+            object.addProperty("size", source.getSize());
+            object.addProperty("modified", source.getModified());
+            sources.add(object);
+        }
+
+        JsonObject cached = new JsonObject();
+        cached.add("sources", sources);
+        cached.add("version", resolved.json);
+
+        Path file = Utils.getResolvedVersionsLocation().resolve(version + ".json");
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(temporary)) {
+                LauncherGson.getGson().toJson(cached, writer);
+            }
+            AtomicFiles.move(temporary, file);
+        } catch (IOException e) {
+            logger.warn("Failed to cache resolved version {}", version, e);
+        }
+    }
+
+    private static class ResolvedVersion {
+        private final List<Source> sources;
+        private final JsonObject json;
+        private final LauncherPackage launcherPackage;
+
+        private ResolvedVersion(List<Source> sources, JsonObject json, LauncherPackage launcherPackage) {
+            this.sources = sources;
+            this.json = json;
+            this.launcherPackage = launcherPackage;
+        }
+
+        private boolean isUpToDate() {
+            for (Source source : sources) {
+                if (!source.isUpToDate()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api;
+
+import me.minidigger.minecraftlauncher.api.verify.AtomicFiles;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lays out asset objects by name for indexes which ask for it. Old versions read assets from
+ * {@code assets/virtual/legacy} ({@code virtual}) or from the resources folder in the game directory
+ * ({@code map_to_resources}), everything newer reads the objects folder directly and needs no tree at all.
+ *
+ * Entries are hard links to the objects, so building the tree writes no file contents. Where hard links
+ * aren't possible, e.g. the folders are on different volumes, objects are copied together with their
+ * modification time.
+ *
+ * Every tree has a manifest under {@code launcher_cache/virtual} recording the index id and the hash of each
+ * entry it was built from. Later builds only touch the difference: new names are added, names whose hash
+ * changed or whose entry no longer matches its object are replaced and names the index no longer has are deleted.
+ * The work is split by directory and runs in parallel.
+ */
+class VirtualAssetTree {
+    private final static Logger logger = LoggerFactory.getLogger(VirtualAssetTree.class);
+
+    private final static int MAGIC = 0x4D4C5654; // MLVT
+    private final static int FORMAT_VERSION = 1;
+
+    private VirtualAssetTree() {}
+
+    /**
+     * Brings the trees the asset index of given objects asks for up to date
+     *
+     * @param indexId      Asset index id
+     * @param assetObjects Asset objects of the index
+     */
+    public static void build(@NonNull String indexId, @NonNull AssetObjectTable assetObjects) {
+        if (assetObjects.isVirtual()) {
+            sync(indexId, assetObjects, Utils.getMineCraftAssetsVirtualLegacyLocation(), Utils.getVirtualAssetManifestLocation("legacy"));
+        }
+        if (assetObjects.isMapToResources()) {
+            sync(indexId, assetObjects, Utils.getMineCraftResourcesLocation(), Utils.getVirtualAssetManifestLocation("resources"));
+        }
+    }
+
+    private static void sync(String indexId, AssetObjectTable assetObjects, Path root, Path manifestFile) {
+        long start = System.currentTimeMillis();
+        Manifest previous = Manifest.read(manifestFile);
+        Path objects = Utils.getMineCraftAssetsObjectsLocation();
+
+        //entries which are new or changed, grouped by the directory they go to
+        Map<Path, List<Integer>> shards = new HashMap<>();
+        Set<String> names = new HashSet<>(assetObjects.size() * 4 / 3 + 1);
+        int changed = 0;
+        for (int i = 0; i < assetObjects.size(); i++) {
+            String name = assetObjects.getName(i);
+            names.add(name);
+            byte[] known = previous != null ? previous.entries.get(name) : null;
+            Path target = getTarget(root, name);
+            //the tree may have been deleted or its objects repaired since the manifest was written
+            if (known != null && assetObjects.hasHash(i, known)
+                    && isPlaced(objects.resolve(assetObjects.getObjectLocation(i)), target)) {
+                continue;
+            }
+            shards.computeIfAbsent(target.getParent(), parent -> new ArrayList<>()).add(i);
+            changed++;
+        }
+
+        List<String> removed = new ArrayList<>();
+        if (previous != null) {
+            for (String name : previous.entries.keySet()) {
+                if (!names.contains(name)) {
+                    removed.add(name);
+                }
+            }
+        }
+
+        if (previous != null && previous.indexId.equals(indexId) && changed == 0 && removed.isEmpty()) {
+            logger.debug("{} is up to date with index {}", root, indexId);
+            return;
+        }
+
+        Set<String> failed = ConcurrentHashMap.newKeySet();
+        AtomicInteger linked = new AtomicInteger();
+        shards.entrySet().parallelStream().forEach(shard -> {
+            try {
+                Files.createDirectories(shard.getKey());
+            } catch (IOException e) {
+                logger.warn("Failed to create {}", shard.getKey(), e);
+            }
+
+            for (int i : shard.getValue()) {
+                String name = assetObjects.getName(i);
+                Path source = objects.resolve(assetObjects.getObjectLocation(i));
+                Path target = getTarget(root, name);
+                try {
+                    //without a manifest the tree may still be complete from an earlier build
+                    if (previous != null || !FileLinks.isUpToDate(source, target)) {
+                        Files.deleteIfExists(target);
+                        FileLinks.link(source, target);
+                        linked.incrementAndGet();
+                    }
+                } catch (NoSuchFileException e) {
+                    logger.warn("Asset object {} of {} is missing", source, name);
+                    failed.add(name);
+                } catch (IOException e) {
+                    logger.warn("Failed to place {} in {}", name, root, e);
+                    failed.add(name);
+                }
+            }
+        });
+
+        removed.parallelStream().forEach(name -> {
+            try {
+                Files.deleteIfExists(getTarget(root, name));
+            } catch (IOException e) {
+                logger.warn("Failed to remove {} from {}", name, root, e);
+            }
+        });
+
+        Manifest manifest = new Manifest(indexId);
+        for (int i = 0; i < assetObjects.size(); i++) {
+            if (!failed.contains(assetObjects.getName(i))) {
+                manifest.entries.put(assetObjects.getName(i), assetObjects.getHashBytes(i));
+            }
+        }
+        manifest.write(manifestFile);
+
+        logger.info("Synchronized {} with index {}: {} linked, {} removed, {} failed in {} ms", root, indexId,
+                linked.get(), removed.size(), failed.size(), System.currentTimeMillis() - start);
+    }
+
+    private static boolean isPlaced(Path source, Path target) {
+        try {
+            return FileLinks.isUpToDate(source, target);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Path getTarget(Path root, String name) {
+        return root.resolve(name.replaceFirst("minecraft/", ""));
+    }
+
+    private static class Manifest {
+        private final String indexId;
+        private final Map<String, byte[]> entries = new HashMap<>();
+
+        private Manifest(String indexId) {
+            this.indexId = indexId;
+        }
+
+        @Nullable
+        private static Manifest read(Path file) {
+            if (Files.notExists(file)) {
+                return null;
+            }
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                    logger.debug("Ignoring virtual asset manifest {} with unknown format", file);
+                    return null;
+                }
+
+                Manifest manifest = new Manifest(in.readUTF());
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String name = in.readUTF();
+                    byte[] sha1 = new byte[20];
+                    in.readFully(sha1);
+                    manifest.entries.put(name, sha1);
+                }
+                return manifest;
+            } catch (IOException e) {
+                logger.warn("Failed to read virtual asset manifest {}", file, e);
+                return null;
+            }
+        }
+
+        private void write(Path file) {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(file.getParent());
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeUTF(indexId);
+                    out.writeInt(entries.size());
+                    for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                        out.writeUTF(entry.getKey());
+                        out.write(entry.getValue());
+                    }
+                }
+
+                AtomicFiles.move(temporary, file);
+            } catch (IOException e) {
+                logger.warn("Failed to save virtual asset manifest {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api.download;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import me.minidigger.minecraftlauncher.api.events.LauncherEventHandler;
+import me.minidigger.minecraftlauncher.api.events.LauncherEventHandler.DownloadingStatus;
+
+/**
+ * Work queue which runs downloads on a fixed number of worker threads.
+ *
+ * At most {@code maxPerHost} downloads talk to the same host at once. Jobs over that limit wait in a
+ * per-host queue instead of occupying a worker, so a slow host never starves the others.
+ */
+public class DownloadScheduler implements AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(DownloadScheduler.class);
+
+    private final ExecutorService executor;
+    private final int maxPerHost;
+    private final LauncherEventHandler eventHandler;
+
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    private final Object pendingLock = new Object();
+    private int pending;
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final List<Failure> failures = Collections.synchronizedList(new ArrayList<>());
+
+    public DownloadScheduler(int maxConcurrent, int maxPerHost, @NonNull LauncherEventHandler eventHandler) {
+        if (maxConcurrent < 1 || maxPerHost < 1) {
+            throw new IllegalArgumentException("Concurrency limits must be positive");
+        }
+        this.executor = Executors.newFixedThreadPool(maxConcurrent, new WorkerFactory());
+        this.maxPerHost = maxPerHost;
+        this.eventHandler = eventHandler;
+    }
+
+    /**
+     * Queues a download
+     *
+     * @param status Category reported to the {@link LauncherEventHandler}
+     * @param url    Remote location, used for per-host limiting and failure reports
+     * @param action Code doing the actual transfer
+     */
+    public void submit(@NonNull DownloadingStatus status, @NonNull String url, @NonNull DownloadAction action) {
+        Job job = new Job(status, url, action);
+        submitted.incrementAndGet();
+        synchronized (pendingLock) {
+            pending++;
+        }
+
+        String host;
+        try {
+            host = new URL(url).getHost();
+        } catch (MalformedURLException e) {
+            finish(job, e);
+            return;
+        }
+
+        HostQueue queue;
+        synchronized (hosts) {
+            queue = hosts.computeIfAbsent(host, h -> new HostQueue());
+            if (queue.running >= maxPerHost) {
+                queue.waiting.add(job);
+                return;
+            }
+            queue.running++;
+        }
+        executor.execute(() -> run(queue, job));
+    }
+
+    /**
+     * Blocks until every download submitted so far has either completed or failed
+     *
+     * @return Failures collected since this scheduler was created
+     * @throws InterruptedException If the waiting thread was interrupted
+     */
+    @NonNull
+    public List<Failure> awaitCompletion() throws InterruptedException {
+        synchronized (pendingLock) {
+            while (pending > 0) {
+                pendingLock.wait();
+            }
+        }
+        synchronized (failures) {
+            return new ArrayList<>(failures);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void run(HostQueue queue, Job job) {
+        Job current = job;
+        while (current != null) {
+            Throwable error = null;
+            try {
+                current.action.download();
+            } catch (Throwable t) {
+                error = t;
+            }
+            finish(current, error);
+
+            // Hand our host slot straight to the next waiting job instead of going back through the executor
+            synchronized (hosts) {
+                current = queue.waiting.poll();
+                if (current == null) {
+                    queue.running--;
+                }
+            }
+        }
+    }
+
+    private void finish(Job job, Throwable error) {
+        try {
+            if (error != null) {
+                logger.warn("Failed to download {}", job.url, error);
+                failures.add(new Failure(job.status, job.url, error));
+                eventHandler.onDownloadFailed(job.status, job.url, error);
+            }
+            eventHandler.onDownloadProgress(job.status, completed.incrementAndGet(), submitted.get());
+        } finally {
+            synchronized (pendingLock) {
+                if (--pending == 0) {
+                    pendingLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * A single transfer, run on one of the scheduler worker threads
+     */
+    @FunctionalInterface
+    public interface DownloadAction {
+        void download() throws Exception;
+    }
+
+    /**
+     * Download which could not be completed
+     */
+    public static class Failure {
+        private final DownloadingStatus status;
+        private final String url;
+        private final Throwable cause;
+
+        private Failure(DownloadingStatus status, String url, Throwable cause) {
+            this.status = status;
+            this.url = url;
+            this.cause = cause;
+        }
+
+        @NonNull
+        public DownloadingStatus getStatus() {
+            return status;
+        }
+
+        @NonNull
+        public String getUrl() {
+            return url;
+        }
+
+        @NonNull
+        public Throwable getCause() {
+            return cause;
+        }
+    }
+
+    private static class Job {
+        private final DownloadingStatus status;
+        private final String url;
+        private final DownloadAction action;
+
+        private Job(DownloadingStatus status, String url, DownloadAction action) {
+            this.status = status;
+            this.url = url;
+            this.action = action;
+        }
+    }
+
+    private static class HostQueue {
+        private final Queue<Job> waiting = new ArrayDeque<>();
+        private int running;
+    }
+
+    private static class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "DownloadWorker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
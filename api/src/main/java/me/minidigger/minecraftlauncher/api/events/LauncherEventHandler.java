@@ -42,6 +42,27 @@ public interface LauncherEventHandler {
     default void onDownload(@NonNull DownloadingStatus downloadingStatus) {
     }
 
+    /**
+     * This method is invoked every time a queued download has finished, successfully or not.
+     * Downloads run in parallel, so this may be called from several threads at once
+     *
+     * @param downloadingStatus {@link DownloadingStatus} of the finished download
+     * @param completed number of finished downloads so far
+     * @param total number of downloads queued so far
+     */
+    default void onDownloadProgress(@NonNull DownloadingStatus downloadingStatus, int completed, int total) {
+    }
+
+    /**
+     * This method is invoked when a queued download has failed
+     *
+     * @param downloadingStatus {@link DownloadingStatus} of the failed download
+     * @param url the url which couldn't be downloaded
+     * @param cause why the download failed
+     */
+    default void onDownloadFailed(@NonNull DownloadingStatus downloadingStatus, @NonNull String url, @NonNull Throwable cause) {
+    }
+
     /**
      * This method is invoked when download is complete
      */
@@ -56,18 +77,26 @@ public interface LauncherEventHandler {
     }
 
     /**
-     * This method is invoked when the game has started
+     * This method is invoked when the game has started, as soon as its log shows that it is up.
+     * It is called from a thread of its own, which also reports the exit of the game afterwards
      */
     default void onGameStarted() {
     }
 
     /**
-     * This method is invoked when the game couldn't start
+     * This method is invoked when the game couldn't start, i.e. exited with an error before it was up
      * @param exitCode the exit code of the game process
      */
     default void onGameCorrupted(int exitCode){
     }
 
+    /**
+     * This method is invoked when the game process has exited, whether it started successfully or not
+     * @param exitCode the exit code of the game process
+     */
+    default void onGameExited(int exitCode) {
+    }
+
     /**
      * Downloadable items
      */
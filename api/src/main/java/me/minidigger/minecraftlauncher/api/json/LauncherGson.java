@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import me.minidigger.minecraftlauncher.api.json.deserializers.AssetIndexTypeAdapter;
+import me.minidigger.minecraftlauncher.api.json.deserializers.LauncherPackageArgumentsDeserializer;
+import me.minidigger.minecraftlauncher.api.json.deserializers.RulesDeserializer;
+import me.minidigger.minecraftlauncher.api.json.launcher.AssetIndex;
+import me.minidigger.minecraftlauncher.api.json.launcher.LauncherPackage;
+import me.minidigger.minecraftlauncher.api.json.launcher.RulesContainer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.List;
+
+/**
+ * Holds the {@link Gson} instance which knows how to read launcher JSON files
+ */
+public final class LauncherGson {
+    private final static Gson gson = new GsonBuilder()
+            .registerTypeAdapter(new TypeToken<List<LauncherPackage.Argument>>() {}.getType(), new LauncherPackageArgumentsDeserializer())
+            .registerTypeAdapter(RulesContainer.class, new RulesDeserializer())
+            .registerTypeAdapter(AssetIndex.class, new AssetIndexTypeAdapter())
+            .create();
+
+    private LauncherGson() {}
+
+    /**
+     * Gets shared {@link Gson} instance with all launcher JSON type adapters registered
+     *
+     * @return Shared {@link Gson} instance
+     */
+    @NonNull
+    public static Gson getGson() {
+        return gson;
+    }
+}
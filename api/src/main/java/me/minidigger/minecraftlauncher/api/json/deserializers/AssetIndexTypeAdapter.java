@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api.json.deserializers;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import me.minidigger.minecraftlauncher.api.json.launcher.AssetIndex;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads asset indexes straight from the token stream. Indexes have thousands of objects, so no tree is built
+ * and names, hashes and sizes are collected in the same pass
+ */
+public class AssetIndexTypeAdapter extends TypeAdapter<AssetIndex> {
+    @Override
+    public AssetIndex read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Map<String, AssetIndex.AssetInfo> objects = new LinkedHashMap<>(4096);
+        boolean virtual = false;
+        boolean mapToResources = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "objects":
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String name = in.nextName();
+                        objects.put(name, readAssetInfo(in, name));
+                    }
+                    in.endObject();
+                    break;
+                case "virtual":
+                    virtual = in.nextBoolean();
+                    break;
+                case "map_to_resources":
+                    mapToResources = in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        return new AssetIndex(objects, virtual, mapToResources);
+    }
+
+    private AssetIndex.AssetInfo readAssetInfo(JsonReader in, String name) throws IOException {
+        String hash = null;
+        long size = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "hash":
+                    hash = in.nextString();
+                    break;
+                case "size":
+                    size = in.nextLong();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        if (hash == null) {
+            throw new JsonParseException("Asset " + name + " has no hash");
+        }
+        return new AssetIndex.AssetInfo(hash, size);
+    }
+
+    @Override
+    public void write(JsonWriter out, AssetIndex value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        if (value.isVirtual()) {
+            out.name("virtual").value(true);
+        }
+        if (value.isMapToResources()) {
+            out.name("map_to_resources").value(true);
+        }
+        out.name("objects").beginObject();
+        for (Map.Entry<String, AssetIndex.AssetInfo> entry : value.getObjects().entrySet()) {
+            out.name(entry.getKey()).beginObject()
+                    .name("hash").value(entry.getValue().getHash())
+                    .name("size").value(entry.getValue().getSize())
+                    .endObject();
+        }
+        out.endObject();
+        out.endObject();
+    }
+}
@@ -31,10 +31,14 @@ import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
 import me.minidigger.minecraftlauncher.api.json.launcher.RulesContainer;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -43,44 +47,51 @@ import java.util.Map;
 public class RulesDeserializer implements JsonDeserializer<RulesContainer> {
     @Override
     public RulesContainer deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        Map<String, String> collectedRules = new HashMap<>();
+        List<RulesContainer.Rule> collectedRules = new ArrayList<>();
 
         for(JsonElement ruleElement : json.getAsJsonArray()) {
             JsonObject rule = ruleElement.getAsJsonObject();
 
-            // TODO: no idea what to do with this
-            // But I think that code behaves as this == "allowed"
-            //String action = rule.get("action").getAsString();
+            JsonPrimitive actionElement = rule.getAsJsonPrimitive("action");
+            RulesContainer.Action action = actionElement != null
+                    ? getAction(actionElement.getAsString())
+                    : RulesContainer.Action.ALLOW;
 
-            JsonObject features;
-            if((features = rule.getAsJsonObject("features")) != null) {
-                for(Map.Entry<String, JsonElement> featuresEntry : features.entrySet()) {
-                    JsonElement entryValue = featuresEntry.getValue();
-                    String conditionValue = entryValue.toString(); // TODO: might needs something sexier than toString()
-                    collectedRules.put("feature." + featuresEntry.getKey(), conditionValue);
+            Map<String, Boolean> features = new HashMap<>();
+            JsonObject featuresObject;
+            if((featuresObject = rule.getAsJsonObject("features")) != null) {
+                for(Map.Entry<String, JsonElement> featuresEntry : featuresObject.entrySet()) {
+                    features.put(featuresEntry.getKey(), featuresEntry.getValue().getAsBoolean());
                 }
             }
 
+            // Rules may only check architecture or version
+            String osName = null;
+            String osVersion = null;
+            String arch = null;
             JsonObject os;
             if((os = rule.getAsJsonObject("os")) != null) {
-                String osName = os.get("name").getAsString();
-                Object osVersion = os.getAsJsonPrimitive("version");
-                Object arch = os.getAsJsonPrimitive("arch");
+                osName = getString(os, "name");
+                osVersion = getString(os, "version");
+                arch = getString(os, "arch");
+            }
 
-                if(osName != null) {
-                    collectedRules.put("os.name", osName);
-                }
+            collectedRules.add(new RulesContainer.Rule(action, osName, osVersion, arch, features));
+        }
 
-                if(osVersion != null) {
-                    collectedRules.put("os.version", osVersion.toString());
-                }
+        return new RulesContainer(collectedRules);
+    }
 
-                if(arch != null) {
-                    collectedRules.put("os.arch", arch.toString());
-                }
-            }
+    private static RulesContainer.Action getAction(String action) {
+        try {
+            return RulesContainer.Action.valueOf(action.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Unknown rule action " + action, e);
         }
+    }
 
-        return new RulesContainer(collectedRules);
+    private static String getString(JsonObject object, String key) {
+        JsonPrimitive primitive = object.getAsJsonPrimitive(key);
+        return primitive != null ? primitive.getAsString() : null;
     }
 }
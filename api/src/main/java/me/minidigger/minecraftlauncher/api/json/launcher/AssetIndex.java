@@ -27,6 +27,7 @@
 package me.minidigger.minecraftlauncher.api.json.launcher;
 
 import com.google.gson.annotations.SerializedName;
+import org.checkerframework.checker.nullness.qual.NonNull;
 
 import java.util.Map;
 
@@ -39,11 +40,75 @@ public class AssetIndex {
     @SerializedName("objects")
     private Map<String, AssetInfo> objects;
 
+    @SerializedName("virtual")
+    private boolean virtual;
+
+    @SerializedName("map_to_resources")
+    private boolean mapToResources;
+
+    public AssetIndex(@NonNull Map<String, AssetInfo> objects, boolean virtual, boolean mapToResources) {
+        this.objects = objects;
+        this.virtual = virtual;
+        this.mapToResources = mapToResources;
+    }
+
+    /**
+     * Gets asset objects by their virtual path, in index order
+     *
+     * @return Asset objects
+     */
+    @NonNull
+    public Map<String, AssetInfo> getObjects() {
+        return objects;
+    }
+
+    /**
+     * Returns whether assets have to be copied to a virtual folder by their names, like pre-1.7 versions expect
+     *
+     * @return Whether this is a virtual asset index
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Returns whether assets have to be copied into the game directory's resources folder, like very old versions expect
+     *
+     * @return Whether assets are mapped to resources
+     */
+    public boolean isMapToResources() {
+        return mapToResources;
+    }
+
     public static class AssetInfo {
         @SerializedName("hash")
         private String hash;
 
         @SerializedName("size")
         private long size;
+
+        public AssetInfo(@NonNull String hash, long size) {
+            this.hash = hash;
+            this.size = size;
+        }
+
+        /**
+         * Gets SHA-1 of the object, which is also its name in the objects folder
+         *
+         * @return SHA-1 as hex string
+         */
+        @NonNull
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * Gets the object size in bytes
+         *
+         * @return Object size
+         */
+        public long getSize() {
+            return size;
+        }
     }
 }
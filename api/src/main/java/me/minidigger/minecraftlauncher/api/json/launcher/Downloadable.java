@@ -41,6 +41,9 @@ public class Downloadable {
     @SerializedName("id")
     private String id;
 
+    @SerializedName("path")
+    private String path;
+
     @SerializedName("sha1")
     private String sha1;
 
@@ -55,6 +58,12 @@ public class Downloadable {
         return id;
     }
 
+    // Only present on library artifacts and classifiers
+    @Nullable
+    public String getPath() {
+        return path;
+    }
+
     @NonNull
     public String getSha1() {
         return sha1;
@@ -73,6 +82,7 @@ public class Downloadable {
     public String toString() {
         return "Downloadable{" +
                 "id='" + id + '\'' +
+                ", path='" + path + '\'' +
                 ", sha1='" + sha1 + '\'' +
                 ", size=" + size +
                 ", url=" + url +
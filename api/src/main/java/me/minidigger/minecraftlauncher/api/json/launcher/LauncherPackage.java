@@ -72,6 +72,15 @@ public class LauncherPackage {
     @SerializedName("logging")
     private Map<String, Logging> logging;
 
+    @SerializedName("mainClass")
+    private String mainClass;
+
+    @SerializedName("inheritsFrom")
+    private String inheritsFrom;
+
+    @SerializedName("jar")
+    private String jar;
+
     @NonNull
     public String getId() {
         return id;
@@ -82,17 +91,18 @@ public class LauncherPackage {
         return type;
     }
 
-    @NonNull
+    // Modded versions may leave this, assetIndex and downloads to the version they inherit from
+    @Nullable
     public String getAssets() {
         return assets;
     }
 
-    @NonNull
+    @Nullable
     public AssetIndexInfo getAssetIndex() {
         return assetIndex;
     }
 
-    @NonNull
+    @Nullable
     public Map<String, Downloadable> getDownloads() {
         return downloads;
     }
@@ -123,6 +133,23 @@ public class LauncherPackage {
         return logging;
     }
 
+    @NonNull
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    // Only present on modded versions, which are based on another version
+    @Nullable
+    public String getInheritsFrom() {
+        return inheritsFrom;
+    }
+
+    // Only present on modded versions, names the version whose jar is used
+    @Nullable
+    public String getJar() {
+        return jar;
+    }
+
     public static class Arguments {
         @SerializedName("game")
         private List<Argument> game;
@@ -197,16 +224,26 @@ public class LauncherPackage {
         @SerializedName("rules")
         private RulesContainer rules;
 
+        @SerializedName("url")
+        private String url;
+
         @NonNull
         public String getName() {
             return name;
         }
 
-        @NonNull
+        // Libraries of modded versions may only have a name and a repository url
+        @Nullable
         public Downloads getDownloads() {
             return downloads;
         }
 
+        // Maven repository of this library, only used by modded versions
+        @Nullable
+        public String getUrl() {
+            return url;
+        }
+
         @Nullable
         public ExtractGuide getExtract() {
             return extract;
@@ -222,6 +259,47 @@ public class LauncherPackage {
             return rules;
         }
 
+        /**
+         * Checks if this library is used in this environment
+         *
+         * @param launcherAPI Instance of {@link LauncherAPI} where to get information about the environment
+         * @return Whether this library is used
+         */
+        public boolean isAllowed(@NonNull LauncherAPI launcherAPI) {
+            return rules == null || rules.isAllowed(launcherAPI);
+        }
+
+        /**
+         * Gets the natives classifier for this environment, with {@code ${arch}} substituted
+         *
+         * @param launcherAPI Instance of {@link LauncherAPI} where to get information about the environment
+         * @return Natives classifier, or {@code null} if this library has no natives for this operating system
+         */
+        @Nullable
+        public String getNativesClassifier(@NonNull LauncherAPI launcherAPI) {
+            if (natives == null) {
+                return null;
+            }
+
+            String classifier = natives.get(launcherAPI.getOperatingSystemName());
+            return classifier != null ? classifier.replace("${arch}", launcherAPI.getArchitectureBits()) : null;
+        }
+
+        /**
+         * Gets the natives jar for this environment
+         *
+         * @param launcherAPI Instance of {@link LauncherAPI} where to get information about the environment
+         * @return Natives jar, or {@code null} if this library has no natives for this operating system
+         */
+        @Nullable
+        public Downloadable getNativesDownload(@NonNull LauncherAPI launcherAPI) {
+            String classifier = getNativesClassifier(launcherAPI);
+            if (classifier == null || downloads == null || downloads.getClassifiers() == null) {
+                return null;
+            }
+            return downloads.getClassifiers().get(classifier);
+        }
+
         public static class Downloads {
             @SerializedName("artifact")
             private Artifact artifact;
@@ -229,7 +307,8 @@ public class LauncherPackage {
             @SerializedName("classifiers")
             private Map<String, Downloadable> classifiers;
 
-            @NonNull
+            // Libraries which only ship natives don't have an artifact
+            @Nullable
             public Artifact getArtifact() {
                 return artifact;
             }
@@ -240,36 +319,11 @@ public class LauncherPackage {
             }
         }
 
-        public static class Artifact {
-            @SerializedName("path")
-            private String path;
-
-            @SerializedName("sha1")
-            private String sha1;
-
-            @SerializedName("size")
-            private long size;
-
-            @SerializedName("url")
-            private URL url;
-
+        public static class Artifact extends Downloadable {
             @NonNull
+            @Override
             public String getPath() {
-                return path;
-            }
-
-            @NonNull
-            public String getSha1() {
-                return sha1;
-            }
-
-            public long getSize() {
-                return size;
-            }
-
-            @NonNull
-            public URL getUrl() {
-                return url;
+                return super.getPath();
             }
         }
 
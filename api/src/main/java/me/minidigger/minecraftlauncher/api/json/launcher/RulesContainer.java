@@ -28,9 +28,12 @@ package me.minidigger.minecraftlauncher.api.json.launcher;
 
 import me.minidigger.minecraftlauncher.api.LauncherAPI;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Launcher profile rules container
@@ -38,20 +41,36 @@ import java.util.Map;
  * @author Mark Vainomaa
  */
 public final class RulesContainer {
-    private final Map<String, String> rules;
+    private final List<Rule> rules;
 
-    public RulesContainer(@NonNull Map<String, String> rules) {
-        this.rules = Collections.unmodifiableMap(rules);
+    public RulesContainer(@NonNull List<Rule> rules) {
+        this.rules = Collections.unmodifiableList(rules);
     }
 
     @NonNull
-    public Map<String, String> getRules() {
+    public List<Rule> getRules() {
         return rules;
     }
 
+    /**
+     * Evaluates the rules against the environment. Without any rules everything is allowed, otherwise
+     * the action of the last matching rule wins and nothing is allowed if no rule matches
+     *
+     * @param launcherAPI Instance of {@link LauncherAPI} where to get information about the environment
+     * @return Whether the rules allow this environment
+     */
     public boolean isAllowed(@NonNull LauncherAPI launcherAPI) {
-        // TODO
-        return false;
+        if (rules.isEmpty()) {
+            return true;
+        }
+
+        boolean allowed = false;
+        for (Rule rule : rules) {
+            if (rule.matches(launcherAPI)) {
+                allowed = rule.getAction() == Action.ALLOW;
+            }
+        }
+        return allowed;
     }
 
     @Override
@@ -60,4 +79,84 @@ public final class RulesContainer {
                 "rules=" + rules +
                 '}';
     }
+
+    /**
+     * A single rule, which applies its action if all of its conditions match
+     */
+    public static final class Rule {
+        private final Action action;
+        private final String osName;
+        private final Pattern osVersion;
+        private final String osArch;
+        private final Map<String, Boolean> features;
+
+        public Rule(@NonNull Action action, @Nullable String osName, @Nullable String osVersion, @Nullable String osArch,
+                    @NonNull Map<String, Boolean> features) {
+            this.action = action;
+            this.osName = osName;
+            this.osVersion = osVersion != null ? Pattern.compile(osVersion) : null;
+            this.osArch = osArch;
+            this.features = Collections.unmodifiableMap(features);
+        }
+
+        @NonNull
+        public Action getAction() {
+            return action;
+        }
+
+        @Nullable
+        public String getOsName() {
+            return osName;
+        }
+
+        // A regular expression matched against the OS version
+        @Nullable
+        public Pattern getOsVersion() {
+            return osVersion;
+        }
+
+        @Nullable
+        public String getOsArch() {
+            return osArch;
+        }
+
+        @NonNull
+        public Map<String, Boolean> getFeatures() {
+            return features;
+        }
+
+        public boolean matches(@NonNull LauncherAPI launcherAPI) {
+            if (osName != null && !osName.equalsIgnoreCase(launcherAPI.getOperatingSystemName())) {
+                return false;
+            }
+            if (osVersion != null && !osVersion.matcher(launcherAPI.getOperatingSystemVersion()).find()) {
+                return false;
+            }
+            if (osArch != null && !osArch.equalsIgnoreCase(launcherAPI.getArchitecture())) {
+                return false;
+            }
+            for (Map.Entry<String, Boolean> feature : features.entrySet()) {
+                if (launcherAPI.isFeatureEnabled(feature.getKey()) != feature.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Rule{" +
+                    "action=" + action +
+                    ", osName='" + osName + '\'' +
+                    ", osVersion=" + osVersion +
+                    ", osArch='" + osArch + '\'' +
+                    ", features=" + features +
+                    '}';
+        }
+    }
+
+    public enum Action {
+        ALLOW,
+        DISALLOW,
+    }
 }
@@ -28,10 +28,16 @@ package me.minidigger.minecraftlauncher.api.json.launcher;
 
 import com.google.gson.annotations.SerializedName;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Minecraft Version Manifest object
@@ -46,6 +52,8 @@ public class VersionManifest {
     @SerializedName("versions")
     private List<VersionInfo> versions;
 
+    private transient volatile Index index;
+
     /**
      * Gets latest release and snapshot versions
      *
@@ -68,6 +76,68 @@ public class VersionManifest {
         return versions;
     }
 
+    /**
+     * Gets downloadable versions of given type, in manifest order
+     *
+     * @param type Version type
+     * @return Unmodifiable list of versions of given type
+     */
+    @NonNull
+    public List<VersionInfo> getVersions(@NonNull VersionType type) {
+        List<VersionInfo> typed = getIndex().byType.get(type);
+        return typed != null ? typed : Collections.emptyList();
+    }
+
+    /**
+     * Looks up a downloadable version by its id
+     *
+     * @param id Minecraft version
+     * @return Version info, or {@code null} if the manifest doesn't list given version
+     */
+    @Nullable
+    public VersionInfo getVersion(@NonNull String id) {
+        return getIndex().byId.get(id);
+    }
+
+    /**
+     * Returns whether given version is listed in this manifest, i.e. whether it is a vanilla version
+     *
+     * @param id Minecraft version
+     * @return Whether the manifest lists given version
+     */
+    public boolean contains(@NonNull String id) {
+        return getIndex().byId.containsKey(id);
+    }
+
+    private Index getIndex() {
+        Index index = this.index;
+        if (index == null) {
+            index = new Index(versions != null ? versions : Collections.emptyList());
+            this.index = index;
+        }
+        return index;
+    }
+
+    /*
+     * Built on first lookup, Gson doesn't run constructors. Building it twice from two threads is harmless
+     */
+    private static class Index {
+        private final Map<String, VersionInfo> byId;
+        private final Map<VersionType, List<VersionInfo>> byType = new EnumMap<>(VersionType.class);
+
+        private Index(List<VersionInfo> versions) {
+            byId = new HashMap<>(versions.size() * 4 / 3 + 1);
+            Map<VersionType, List<VersionInfo>> lists = new EnumMap<>(VersionType.class);
+            for (VersionInfo version : versions) {
+                byId.putIfAbsent(version.getId(), version);
+                if (version.type != null) {
+                    lists.computeIfAbsent(version.type, type -> new ArrayList<>()).add(version);
+                }
+            }
+            lists.forEach((type, list) -> byType.put(type, Collections.unmodifiableList(list)));
+        }
+    }
+
     /**
      * Latest Minecraft version info in {@link VersionManifest}
      */
@@ -102,6 +172,9 @@ public class VersionManifest {
         @SerializedName("url")
         private URL url;
 
+        @SerializedName("sha1")
+        private String sha1;
+
         @SerializedName("time")
         private Date time;
 
@@ -138,6 +211,16 @@ public class VersionManifest {
             return url;
         }
 
+        /**
+         * Gets SHA-1 of the version JSON. Only version manifest v2 publishes it
+         *
+         * @return SHA-1 of the version JSON, or {@code null} if the manifest doesn't list it
+         */
+        @Nullable
+        public String getSha1() {
+            return sha1;
+        }
+
         @Override
         public int compareTo(VersionInfo o) {
             return releaseTime.compareTo(o.releaseTime);
@@ -0,0 +1,252 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api.verify;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk record of installed files which have been verified against their SHA-1.
+ *
+ * Every entry remembers the size and modification time the file had when it was hashed. As long as
+ * both are unchanged the file is trusted without reading it again, so checking an install only costs a
+ * {@code stat} per file.
+ */
+public class ArtifactLedger {
+    private final static Logger logger = LoggerFactory.getLogger(ArtifactLedger.class);
+
+    private final static int MAGIC = 0x4D4C4C47; // MLLG
+    private final static int FORMAT_VERSION = 1;
+
+    private final Path ledgerFile;
+    private final Path root;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private ArtifactLedger(Path ledgerFile, Path root) {
+        this.ledgerFile = ledgerFile;
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Loads the ledger from disk. A missing or unreadable ledger results in an empty one
+     *
+     * @param ledgerFile Ledger location
+     * @param root       Directory recorded paths are relative to
+     * @return Loaded {@link ArtifactLedger}
+     */
+    @NonNull
+    public static ArtifactLedger load(@NonNull Path ledgerFile, @NonNull Path root) {
+        ArtifactLedger ledger = new ArtifactLedger(ledgerFile, root);
+        if (Files.notExists(ledgerFile)) {
+            return ledger;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(ledgerFile), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warn("Ignoring ledger {} with unknown format", ledgerFile);
+                return ledger;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long modified = in.readLong();
+                byte[] sha1 = new byte[20];
+                in.readFully(sha1);
+                ledger.entries.put(path, new Entry(size, modified, sha1));
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read ledger {}, starting with an empty one", ledgerFile, e);
+            ledger.entries.clear();
+        }
+        return ledger;
+    }
+
+    /**
+     * Checks whether given file was verified to have given SHA-1 and hasn't changed since
+     *
+     * @param file File to check
+     * @param sha1 Expected SHA-1 as hex string
+     * @return Whether the file can be trusted without hashing it
+     */
+    public boolean isVerified(@NonNull Path file, @NonNull String sha1) {
+        String known = getVerifiedSha1(file);
+        return known != null && known.equalsIgnoreCase(sha1);
+    }
+
+    /**
+     * Gets the SHA-1 recorded for given file, if the file hasn't changed since it was recorded
+     *
+     * @param file File to look up
+     * @return Recorded SHA-1 as hex string, or {@code null} if the file is unknown, missing or was modified
+     */
+    @Nullable
+    public String getVerifiedSha1(@NonNull Path file) {
+        Entry entry = entries.get(key(file));
+        if (entry == null) {
+            return null;
+        }
+
+        BasicFileAttributes attributes = stat(file);
+        if (attributes == null || attributes.size() != entry.size || attributes.lastModifiedTime().toMillis() != entry.modified) {
+            return null;
+        }
+        return Hex.toHexString(entry.sha1);
+    }
+
+    /**
+     * Records that given file currently has given SHA-1
+     *
+     * @param file File which was verified
+     * @param sha1 SHA-1 of the file contents as hex string
+     */
+    public void record(@NonNull Path file, @NonNull String sha1) {
+        BasicFileAttributes attributes = stat(file);
+        if (attributes == null) {
+            return;
+        }
+
+        Entry entry = new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), fromHex(sha1));
+        Entry previous = entries.put(key(file), entry);
+        if (!entry.equals(previous)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Removes given file from the ledger
+     *
+     * @param file File to forget
+     */
+    public void forget(@NonNull Path file) {
+        if (entries.remove(key(file)) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the ledger to disk if it was changed since it was loaded or last saved
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        Path temporary = ledgerFile.resolveSibling(ledgerFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(ledgerFile.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024))) {
+                Map<String, Entry> snapshot = new HashMap<>(entries);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Entry> mapEntry : snapshot.entrySet()) {
+                    Entry entry = mapEntry.getValue();
+                    out.writeUTF(mapEntry.getKey());
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.modified);
+                    out.write(entry.sha1);
+                }
+            }
+
+            AtomicFiles.move(temporary, ledgerFile);
+        } catch (IOException e) {
+            dirty = true;
+            logger.warn("Failed to save ledger {}", ledgerFile, e);
+        }
+    }
+
+    private String key(Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        Path relative = absolute.startsWith(root) ? root.relativize(absolute) : absolute;
+        return relative.toString().replace('\\', '/');
+    }
+
+    @Nullable
+    private static BasicFileAttributes stat(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.debug("Failed to stat {}", file, e);
+            return null;
+        }
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[20];
+        if (!Hex.fromHex(hex, bytes, 0, bytes.length)) {
+            throw new IllegalArgumentException("Not a SHA-1: " + hex);
+        }
+        return bytes;
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long modified;
+        private final byte[] sha1;
+
+        private Entry(long size, long modified, byte[] sha1) {
+            this.size = size;
+            this.modified = modified;
+            this.sha1 = sha1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry entry = (Entry) o;
+            return size == entry.size && modified == entry.modified && Arrays.equals(sha1, entry.sha1);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(size) + Arrays.hashCode(sha1);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api.verify;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * A file which should be installed, together with what it is expected to contain
+ */
+public class ExpectedFile {
+    private final Path path;
+    private final String sha1;
+    private final long size;
+    private final String url;
+
+    /**
+     * @param path Where the file is installed
+     * @param sha1 Expected SHA-1 as hex string, or {@code null} if unknown
+     * @param size Expected size in bytes, or {@code 0} if unknown
+     * @param url  Where the file can be downloaded from again, or {@code null} if unknown
+     */
+    public ExpectedFile(@NonNull Path path, @Nullable String sha1, long size, @Nullable String url) {
+        this.path = path;
+        this.sha1 = sha1;
+        this.size = size;
+        this.url = url;
+    }
+
+    @NonNull
+    public Path getPath() {
+        return path;
+    }
+
+    @Nullable
+    public String getSha1() {
+        return sha1;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Nullable
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpectedFile{" +
+                "path=" + path +
+                ", sha1='" + sha1 + '\'' +
+                ", size=" + size +
+                ", url='" + url + '\'' +
+                '}';
+    }
+}
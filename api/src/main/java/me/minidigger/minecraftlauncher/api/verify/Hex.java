@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api.verify;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Hex encoding of hashes
+ */
+public final class Hex {
+    private final static char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private Hex() {}
+
+    /**
+     * @param bytes Bytes to encode
+     * @return Bytes as lower case hex string
+     */
+    @NonNull
+    public static String toHexString(@NonNull byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        toHex(bytes, 0, bytes.length, hex, 0);
+        return new String(hex);
+    }
+
+    /**
+     * Writes bytes as lower case hex digits
+     *
+     * @param bytes        Bytes to encode
+     * @param offset       Position of the first byte
+     * @param length       Number of bytes
+     * @param target       Array to write {@code length * 2} digits to
+     * @param targetOffset Position of the first digit
+     */
+    public static void toHex(@NonNull byte[] bytes, int offset, int length, @NonNull char[] target, int targetOffset) {
+        for (int i = 0; i < length; i++) {
+            int value = bytes[offset + i] & 0xFF;
+            target[targetOffset + i * 2] = DIGITS[value >>> 4];
+            target[targetOffset + i * 2 + 1] = DIGITS[value & 0xF];
+        }
+    }
+
+    /**
+     * Appends bytes as lower case hex digits
+     *
+     * @param bytes  Bytes to encode
+     * @param offset Position of the first byte
+     * @param length Number of bytes
+     * @param target Builder to append {@code length * 2} digits to
+     */
+    public static void appendHex(@NonNull byte[] bytes, int offset, int length, @NonNull StringBuilder target) {
+        for (int i = 0; i < length; i++) {
+            int value = bytes[offset + i] & 0xFF;
+            target.append(DIGITS[value >>> 4]).append(DIGITS[value & 0xF]);
+        }
+    }
+
+    /**
+     * Reads hex digits of either case as bytes
+     *
+     * @param hex    Exactly {@code length * 2} hex digits
+     * @param target Array to write the bytes to
+     * @param offset Position of the first byte
+     * @param length Number of bytes
+     * @return {@code false} if given string has another length or isn't hex, {@code target} may be partly written then
+     */
+    public static boolean fromHex(@NonNull String hex, @NonNull byte[] target, int offset, int length) {
+        if (hex.length() != length * 2) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            target[offset + i] = (byte) (high << 4 | low);
+        }
+        return true;
+    }
+}
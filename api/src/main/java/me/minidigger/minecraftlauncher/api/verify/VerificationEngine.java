@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api.verify;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks installed files against their expected size and SHA-1, spreading the work over all cores.
+ *
+ * Hashing reuses one {@link MessageDigest} and one read buffer per worker thread, and the
+ * {@link ArtifactLedger} is consulted and updated according to the requested {@link VerificationLevel}.
+ */
+public class VerificationEngine {
+    private final static Logger logger = LoggerFactory.getLogger(VerificationEngine.class);
+
+    private final static int BUFFER_SIZE = 256 * 1024;
+    private final static int FILES_PER_TASK = 8;
+
+    private final static ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final static ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(VerificationEngine::newSha1Digest);
+    private final static ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final ArtifactLedger ledger;
+
+    public VerificationEngine(@NonNull ArtifactLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Verifies given files in parallel
+     *
+     * @param files Files to verify
+     * @param level How thoroughly to check them
+     * @return {@link VerificationReport} listing which files are ok, missing or corrupt
+     */
+    @NonNull
+    public VerificationReport verify(@NonNull Collection<ExpectedFile> files, @NonNull VerificationLevel level) {
+        long start = System.currentTimeMillis();
+        List<ExpectedFile> list = new ArrayList<>(files);
+        VerificationReport.Status[] statuses = new VerificationReport.Status[list.size()];
+        pool.invoke(new VerifyTask(list, statuses, 0, list.size(), level));
+        return new VerificationReport(list, statuses, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Verifies a single file on the calling thread
+     *
+     * @param file  File to verify
+     * @param level How thoroughly to check it
+     * @return Verification result
+     */
+    public VerificationReport.Status check(@NonNull ExpectedFile file, @NonNull VerificationLevel level) {
+        Path path = file.getPath();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return VerificationReport.Status.MISSING;
+        }
+
+        if (level == VerificationLevel.NONE) {
+            return VerificationReport.Status.OK;
+        }
+        if (file.getSize() > 0 && attributes.size() != file.getSize()) {
+            logger.warn("{} is corrupt, expected {} bytes but found {}", path, file.getSize(), attributes.size());
+            ledger.forget(path);
+            return VerificationReport.Status.CORRUPT;
+        }
+
+        String sha1 = file.getSha1();
+        if (level == VerificationLevel.SIZE || sha1 == null) {
+            return VerificationReport.Status.OK;
+        }
+        if (level == VerificationLevel.MTIME && ledger.isVerified(path, sha1)) {
+            return VerificationReport.Status.OK;
+        }
+
+        String actualSha1;
+        try {
+            actualSha1 = sha1(path);
+        } catch (IOException e) {
+            logger.warn("Failed to hash {}", path, e);
+            ledger.forget(path);
+            return VerificationReport.Status.CORRUPT;
+        }
+
+        if (sha1.equalsIgnoreCase(actualSha1)) {
+            ledger.record(path, actualSha1);
+            return VerificationReport.Status.OK;
+        }
+
+        logger.warn("{} is corrupt, expected SHA-1 {} but got {}", path, sha1, actualSha1);
+        ledger.forget(path);
+        return VerificationReport.Status.CORRUPT;
+    }
+
+    /**
+     * Computes the SHA-1 of given file, using the calling thread's digest and buffer
+     *
+     * @param path File to hash
+     * @return SHA-1 as lower case hex string
+     * @throws IOException If the file can't be read
+     */
+    @NonNull
+    public static String sha1(@NonNull Path path) throws IOException {
+        MessageDigest digest = digests.get();
+        byte[] buffer = buffers.get();
+        digest.reset();
+
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        return Hex.toHexString(digest.digest());
+    }
+
+    private static MessageDigest newSha1Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    private class VerifyTask extends RecursiveAction {
+        private final static long serialVersionUID = 1L;
+
+        private final List<ExpectedFile> files;
+        private final VerificationReport.Status[] statuses;
+        private final int from;
+        private final int to;
+        private final VerificationLevel level;
+
+        private VerifyTask(List<ExpectedFile> files, VerificationReport.Status[] statuses, int from, int to, VerificationLevel level) {
+            this.files = files;
+            this.statuses = statuses;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FILES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    statuses[i] = check(files.get(i), level);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new VerifyTask(files, statuses, from, middle, level),
+                    new VerifyTask(files, statuses, middle, to, level));
+        }
+    }
+}
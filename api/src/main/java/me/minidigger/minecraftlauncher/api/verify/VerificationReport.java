@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ammar Ahmad
+ * Copyright (c) 2018 Martin Benndorf
+ * Copyright (c) 2018 Mark Vainomaa
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.minidigger.minecraftlauncher.api.verify;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of verifying a set of {@link ExpectedFile}s
+ */
+public class VerificationReport {
+    private final List<ExpectedFile> ok = new ArrayList<>();
+    private final List<ExpectedFile> missing = new ArrayList<>();
+    private final List<ExpectedFile> corrupt = new ArrayList<>();
+    private final long durationMillis;
+
+    VerificationReport(List<ExpectedFile> files, Status[] statuses, long durationMillis) {
+        for (int i = 0; i < statuses.length; i++) {
+            switch (statuses[i]) {
+                case OK:
+                    ok.add(files.get(i));
+                    break;
+                case MISSING:
+                    missing.add(files.get(i));
+                    break;
+                case CORRUPT:
+                    corrupt.add(files.get(i));
+                    break;
+            }
+        }
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * @return Files which passed verification
+     */
+    @NonNull
+    public List<ExpectedFile> getOk() {
+        return Collections.unmodifiableList(ok);
+    }
+
+    /**
+     * @return Files which don't exist
+     */
+    @NonNull
+    public List<ExpectedFile> getMissing() {
+        return Collections.unmodifiableList(missing);
+    }
+
+    /**
+     * @return Files which exist, but have the wrong size or SHA-1
+     */
+    @NonNull
+    public List<ExpectedFile> getCorrupt() {
+        return Collections.unmodifiableList(corrupt);
+    }
+
+    /**
+     * @return Missing and corrupt files, i.e. everything which has to be downloaded again
+     */
+    @NonNull
+    public List<ExpectedFile> getBroken() {
+        List<ExpectedFile> broken = new ArrayList<>(missing.size() + corrupt.size());
+        broken.addAll(missing);
+        broken.addAll(corrupt);
+        return broken;
+    }
+
+    /**
+     * @return Whether every file passed verification
+     */
+    public boolean isIntact() {
+        return missing.isEmpty() && corrupt.isEmpty();
+    }
+
+    /**
+     * @return How long the verification took in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "VerificationReport{" +
+                "ok=" + ok.size() +
+                ", missing=" + missing.size() +
+                ", corrupt=" + corrupt.size() +
+                ", durationMillis=" + durationMillis +
+                '}';
+    }
+
+    /**
+     * Verification result of a single file
+     */
+    public enum Status {
+        OK,
+        MISSING,
+        CORRUPT,
+    }
+}
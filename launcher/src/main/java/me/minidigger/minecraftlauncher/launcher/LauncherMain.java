@@ -42,6 +42,7 @@ import javafx.stage.StageStyle;
 import me.minidigger.minecraftlauncer.renderer.SkinCanvas;
 import me.minidigger.minecraftlauncer.renderer.SkinCanvasMouseHandler;
 import me.minidigger.minecraftlauncer.renderer.model.SkinCube;
+import me.minidigger.minecraftlauncher.api.LauncherAPI;
 
 /**
  * @author ammar
@@ -68,6 +69,7 @@ public class LauncherMain extends Application {
     @Override
     public void start(Stage stage) throws Exception {
         LauncherSettings.userSettingsLoad();
+        new LauncherAPI().prewarmConnections();
 
         Parent root = FXMLLoader.load(getClass().getResource("/fxml/Launcher_Main_GUI.fxml"));
         Scene scene = new Scene(root);
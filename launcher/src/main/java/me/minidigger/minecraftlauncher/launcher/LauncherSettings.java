@@ -33,9 +33,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javafx.scene.Scene;
 import me.minidigger.minecraftlauncher.api.LauncherAPI;
+import me.minidigger.minecraftlauncher.api.verify.VerificationLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,6 +67,9 @@ public class LauncherSettings {
     static public String ramAllocationMax = "1024";
     static public String javaPath = "";
     static public String jvmArguments = "";
+    static public String verificationLevel = VerificationLevel.MTIME.name();
+    static public String fullHashIntervalDays = "7";
+    static public long lastFullHash = 0;
 
     public static void userSettingsSave() {
         if (LauncherSettings.resolutionWidth.equals("") || LauncherSettings.resolutionWidth.equals("0")) {
@@ -101,6 +106,9 @@ public class LauncherSettings {
             prop.setProperty("javapath", LauncherSettings.javaPath);
             prop.setProperty("jvmarguments", LauncherSettings.jvmArguments);
             prop.setProperty("debugMode", String.valueOf(LauncherSettings.showDebugStatus));
+            prop.setProperty("verificationlevel", LauncherSettings.verificationLevel);
+            prop.setProperty("fullhashintervaldays", LauncherSettings.fullHashIntervalDays);
+            prop.setProperty("lastfullhash", String.valueOf(LauncherSettings.lastFullHash));
             prop.store(output, null);
 
         } catch (IOException io) {
@@ -177,6 +185,23 @@ public class LauncherSettings {
                 LauncherSettings.showDebugStatus = Boolean.parseBoolean(prop.getProperty("debugMode"));
             }
 
+            if (prop.getProperty("verificationlevel") != null) {
+                LauncherSettings.verificationLevel = prop.getProperty("verificationlevel");
+            }
+
+            if (prop.getProperty("fullhashintervaldays") != null) {
+                LauncherSettings.fullHashIntervalDays = prop.getProperty("fullhashintervaldays");
+            }
+
+            if (prop.getProperty("lastfullhash") != null) {
+                try {
+                    LauncherSettings.lastFullHash = Long.parseLong(prop.getProperty("lastfullhash").trim());
+                } catch (NumberFormatException e) {
+                    logger.warn("Invalid time of the last full hash {}, hashing on the next launch", prop.getProperty("lastfullhash"));
+                    LauncherSettings.lastFullHash = 0;
+                }
+            }
+
             if (prop.getProperty("theme") != null) {
                 LauncherSettings.selectedTheme = prop.getProperty("theme");
             }
@@ -194,6 +219,44 @@ public class LauncherSettings {
         }
     }
 
+    /**
+     * Gets the verification level for the next launch. Every {@link #fullHashIntervalDays} days this is a full
+     * hash of the installation, otherwise the configured {@link #verificationLevel}
+     *
+     * @return {@link VerificationLevel} to use
+     */
+    public static VerificationLevel getLaunchVerificationLevel() {
+        if (LauncherSettings.fastStartUp) {
+            return VerificationLevel.NONE;
+        }
+
+        long intervalDays;
+        try {
+            intervalDays = Long.parseLong(LauncherSettings.fullHashIntervalDays.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid full hash interval {}, using 7 days", LauncherSettings.fullHashIntervalDays);
+            LauncherSettings.fullHashIntervalDays = "7";
+            intervalDays = 7;
+        }
+        long interval = TimeUnit.DAYS.toMillis(intervalDays);
+        if (interval > 0 && System.currentTimeMillis() - LauncherSettings.lastFullHash >= interval) {
+            return VerificationLevel.FULL_HASH;
+        }
+        return getVerificationLevel();
+    }
+
+    /**
+     * @return Configured {@link #verificationLevel}, {@link VerificationLevel#MTIME} if it is unknown
+     */
+    public static VerificationLevel getVerificationLevel() {
+        try {
+            return VerificationLevel.valueOf(LauncherSettings.verificationLevel);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown verification level {}", LauncherSettings.verificationLevel);
+            return VerificationLevel.MTIME;
+        }
+    }
+
     public static void setTheme(Scene sceneOptions) {
         sceneOptions.getStylesheets().clear();
         switch(LauncherSettings.selectedTheme) {
@@ -32,6 +32,7 @@ import javafx.application.Platform;
 import javafx.fxml.Initializable;
 import me.minidigger.minecraftlauncher.api.LauncherAPI;
 import me.minidigger.minecraftlauncher.api.events.LauncherEventHandler;
+import me.minidigger.minecraftlauncher.launcher.LauncherSettings;
 import me.minidigger.minecraftlauncher.launcher.Status;
 
 public abstract class AbstractGUIController implements Initializable, LauncherEventHandler {
@@ -41,6 +42,7 @@ public abstract class AbstractGUIController implements Initializable, LauncherEv
     public AbstractGUIController(){
         API = new LauncherAPI();
         API.setEventHandler(this);
+        API.setVerificationLevel(LauncherSettings.getVerificationLevel());
     }
 
     @Override
@@ -72,6 +72,7 @@ import me.minidigger.minecraftlauncer.renderer.animation.animations.MagmaArmsAni
 import me.minidigger.minecraftlauncer.renderer.animation.animations.RunningAnimation;
 import me.minidigger.minecraftlauncer.renderer.animation.animations.WavingArmsAnimation;
 import me.minidigger.minecraftlauncher.api.ServerListEntry;
+import me.minidigger.minecraftlauncher.api.verify.VerificationLevel;
 import me.minidigger.minecraftlauncher.launcher.LauncherMain;
 import me.minidigger.minecraftlauncher.launcher.LauncherSettings;
 import me.minidigger.minecraftlauncher.launcher.Status;
@@ -266,10 +267,11 @@ public class LauncherMainController extends AbstractGUIController {
             }
 
             boolean nettyPatch = LauncherSettings.bypassBlacklist;
-            if (LauncherSettings.fastStartUp) {
-                API.runMinecraft(username.getText(), version.getValue(), false, nettyPatch);
-            } else {
-                API.runMinecraft(username.getText(), version.getValue(), true, nettyPatch);
+            VerificationLevel verificationLevel = LauncherSettings.getLaunchVerificationLevel();
+            boolean verified = API.runMinecraft(username.getText(), version.getValue(), verificationLevel, nettyPatch);
+            if (verified && verificationLevel == VerificationLevel.FULL_HASH) {
+                LauncherSettings.lastFullHash = System.currentTimeMillis();
+                LauncherSettings.userSettingsSave();
             }
         });
         executor.shutdown();
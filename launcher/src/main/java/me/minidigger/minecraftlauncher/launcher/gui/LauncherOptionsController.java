@@ -33,8 +33,14 @@ import java.awt.*;
 import java.io.File;
 import java.net.URL;
 import java.text.MessageFormat;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -57,6 +63,7 @@ import javafx.scene.layout.Region;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import me.minidigger.minecraftlauncher.api.json.launcher.VersionManifest;
 import me.minidigger.minecraftlauncher.launcher.LauncherMain;
 import me.minidigger.minecraftlauncher.launcher.LauncherSettings;
 import me.minidigger.minecraftlauncher.launcher.Status;
@@ -146,6 +153,12 @@ public class LauncherOptionsController extends AbstractGUIController {
     @FXML
     private Tooltip tt_debugMode;
 
+    private final static ExecutorService versionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Version manifest refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private Hashtable<String, String> VersionHashTable = new Hashtable<>();
 
     /**
@@ -159,34 +172,50 @@ public class LauncherOptionsController extends AbstractGUIController {
 
         loadOptionsData();
 
-        ExecutorService executor = Executors.newCachedThreadPool();
-        executor.submit(() -> {
-            optionStatus.setText(resourceBundle.getString("status.getting_latest_version"));
-            optionsSelectVersion.setDisable(true);
-            optionsSelectVersionInstall.setDisable(true);
-            API.downloadVersionManifest();
-
-            for (Object ob : API.getInstallableVersionsList()) {
-                String[] prsntAry = ob.toString().split(" % ");
-                optionsSelectVersion.getItems().addAll(prsntAry[0]);
-                VersionHashTable.put(prsntAry[0], prsntAry[1]);
-            }
+        //fill the picker from the last known manifest right away, and only then ask whether there is a newer one
+        versionExecutor.submit(() -> {
+            Map<String, String> versions = collectVersions();
+            Platform.runLater(() -> applyVersions(versions));
 
-            if (!API.getInstalledVersionsList().isEmpty()) {
-                for (String ob_ : API.getInstalledVersionsList()) {
-                    if (!VersionHashTable.containsKey(ob_)) {
-                        optionsSelectVersion.getItems().addAll(ob_);
-                        VersionHashTable.put(ob_, "Unknown");
-                    }
-                }
+            if (API.refreshVersionManifest()) {
+                Map<String, String> refreshed = collectVersions();
+                Platform.runLater(() -> applyVersions(refreshed));
             }
+        });
+    }
 
-            optionsSelectVersion.setDisable(false);
-            optionsSelectVersionInstall.setDisable(false);
+    /*
+     * Installable versions in manifest order followed by installed versions the manifest doesn't know, mapped to their type
+     */
+    private Map<String, String> collectVersions() {
+        Map<String, String> versions = new LinkedHashMap<>();
+        for (VersionManifest.VersionInfo version : API.getInstallableVersions()) {
+            versions.putIfAbsent(version.getId(), version.getType() != null ? version.getType().name().toLowerCase(Locale.ROOT) : "Unknown");
+        }
+        for (String installed : API.getInstalledVersionsList()) {
+            versions.putIfAbsent(installed, "Unknown");
+        }
+        return versions;
+    }
 
-            Platform.runLater(() -> setStatus(Status.IDLE));
-        });
-        executor.shutdown();
+    /*
+     * Brings the picker in line with given versions without rebuilding it, so the selection and scroll position survive
+     */
+    private void applyVersions(Map<String, String> versions) {
+        List<String> items = optionsSelectVersion.getItems();
+        items.retainAll(versions.keySet());
+
+        Set<String> present = new HashSet<>(items);
+        int index = 0;
+        for (String id : versions.keySet()) {
+            if (present.add(id)) {
+                items.add(Math.min(index, items.size()), id);
+            }
+            index++;
+        }
+
+        VersionHashTable.keySet().retainAll(versions.keySet());
+        VersionHashTable.putAll(versions);
     }
 
     @FXML